@@ -0,0 +1,151 @@
+package com.example.grpc.server;
+
+import com.example.grpc.order.*;
+import com.example.grpc.server.retention.RetentionPolicy;
+import io.grpc.Drainable;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * GetOrder 응답 직렬화 비용을 기본 protobuf 마샬러와 캐시 마샬러로 비교하는 벤치마크
+ * marshal*: 마샬러가 만든 스트림을 프레이머처럼 출력 스트림에 쓰는 비용만 측정
+ * getOrder: 로컬 Netty 서버에 대한 단일 GetOrder 왕복 지연
+ *
+ * 실행: gradle jmh -PjmhArgs="GetOrderBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetOrderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MarshallerState {
+        final ConcurrentHashMap<String, OrderResponse> orders = new ConcurrentHashMap<>();
+        final SerializedResponseCache cache = new SerializedResponseCache(orders, 16);
+        final MethodDescriptor.Marshaller<OrderResponse> stock = ProtoUtils.marshaller(OrderResponse.getDefaultInstance());
+        final MethodDescriptor.Marshaller<OrderResponse> cached = new CachedOrderResponseMarshaller(cache);
+        final CountingOutputStream sink = new CountingOutputStream();
+        OrderResponse order;
+
+        @Setup
+        public void setUp() {
+            order = OrderResponse.newBuilder()
+                .setOrderId("ORD-0123456789abcdef")
+                .setStatus(OrderStatus.SHIPPED)
+                .setTotalAmount(1530000.0)
+                .setCreatedAt(System.currentTimeMillis())
+                .setMessage("Order created successfully")
+                .build();
+            orders.put(order.getOrderId(), order);
+            cache.cache(order);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"stock", "cached"})
+        public String marshaller;
+
+        Path archiveDir;
+        OrderServiceImpl orderService;
+        Server server;
+        ManagedChannel channel;
+        OrderServiceGrpc.OrderServiceBlockingStub stub;
+        GetOrderRequest request;
+
+        @Setup
+        public void setUp() throws Exception {
+            // 요청마다 남는 INFO 로그가 측정값을 왜곡하지 않도록 경고 이상만 출력
+            Logger.getLogger("").setLevel(Level.WARNING);
+            archiveDir = Files.createTempDirectory("order-jmh");
+            orderService = new OrderServiceImpl(RetentionPolicy.defaults(), archiveDir);
+            server = ServerBuilder.forPort(0)
+                .addService("cached".equals(marshaller)
+                    ? orderService.bindServiceWithResponseCache()
+                    : orderService.bindService())
+                .build()
+                .start();
+            channel = ManagedChannelBuilder.forAddress("localhost", server.getPort())
+                .usePlaintext()
+                .build();
+            stub = OrderServiceGrpc.newBlockingStub(channel);
+
+            OrderResponse created = stub.createOrder(CreateOrderRequest.newBuilder()
+                .setCustomerId("CUST-001")
+                .addItems(OrderItem.newBuilder()
+                    .setProductId("PROD-001")
+                    .setProductName("노트북")
+                    .setQuantity(1)
+                    .setUnitPrice(1500000.0)
+                    .build())
+                .setShippingAddress("서울시 강남구 테헤란로 123")
+                .build());
+            request = GetOrderRequest.newBuilder().setOrderId(created.getOrderId()).build();
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            orderService.shutdown();
+            try (Stream<Path> paths = Files.walk(archiveDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public long marshalStock(MarshallerState state) throws IOException {
+        return drain(state.stock, state.order, state.sink);
+    }
+
+    @Benchmark
+    public long marshalCached(MarshallerState state) throws IOException {
+        return drain(state.cached, state.order, state.sink);
+    }
+
+    @Benchmark
+    public OrderResponse getOrder(ServerState state) {
+        return state.stub.getOrder(state.request);
+    }
+
+    private static long drain(MethodDescriptor.Marshaller<OrderResponse> marshaller, OrderResponse order,
+                              CountingOutputStream sink) throws IOException {
+        ((Drainable) marshaller.stream(order)).drainTo(sink);
+        return sink.count;
+    }
+
+    /**
+     * 쓰인 바이트 수만 세는 출력 스트림 (메시지 프레이머의 버퍼 복사를 대신함)
+     */
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
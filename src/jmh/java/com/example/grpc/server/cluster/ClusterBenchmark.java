@@ -0,0 +1,256 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.order.*;
+import com.example.grpc.server.OrderServer;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 노드 수(1~3)별 클러스터 처리량 벤치마크
+ * 노드마다 별도 JVM 프로세스로 OrderServer를 띄우고, 한 작업은 임의 노드에 주문을 생성한 뒤 조회합니다
+ * createThenGet은 클라이언트가 같은 해시 링으로 소유 노드를 계산해 바로 조회하는 기준선이고,
+ * AnyNode 변형은 요청을 임의 노드로 보내 (노드 수 - 1) / 노드 수 비율로 소유 노드 전달을 거칩니다
+ *
+ * 실행: gradle jmh -PjmhArgs="ClusterBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(32)
+public class ClusterBenchmark {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final long STARTUP_TIMEOUT_MILLIS = 30000;
+    private static final int SEEDED_ORDERS = 1000;
+    private static final int PROCESS_BATCH_SIZE = 10;
+
+    private static final CreateOrderRequest CREATE_REQUEST = CreateOrderRequest.newBuilder()
+        .setCustomerId("CUST-001")
+        .addItems(OrderItem.newBuilder()
+            .setProductId("PROD-001")
+            .setProductName("노트북")
+            .setQuantity(1)
+            .setUnitPrice(1500000.0)
+            .build())
+        .setShippingAddress("서울시 강남구 테헤란로 123")
+        .build();
+
+    @State(Scope.Benchmark)
+    public static class Cluster {
+        @Param({"1", "2", "3"})
+        public int nodeCount;
+
+        Path workDir;
+        List<Process> processes = new ArrayList<>();
+        List<ManagedChannel> channels = new ArrayList<>();
+        List<OrderServiceGrpc.OrderServiceBlockingStub> stubs = new ArrayList<>();
+        List<OrderServiceGrpc.OrderServiceStub> asyncStubs = new ArrayList<>();
+        List<String> seededOrderIds = new ArrayList<>();
+        Map<ClusterNode, OrderServiceGrpc.OrderServiceBlockingStub> ownerStubs = new HashMap<>();
+        ConsistentHashRing ring;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            workDir = Files.createTempDirectory("order-cluster-benchmark");
+            // 요청마다 남는 INFO 로그가 측정값을 왜곡하지 않도록 노드 프로세스는 경고 이상만 출력
+            Path loggingConfig = workDir.resolve("logging.properties");
+            Files.write(loggingConfig, List.of(".level=WARNING", "handlers=java.util.logging.ConsoleHandler"));
+
+            List<ClusterNode> nodes = new ArrayList<>();
+            for (int i = 0; i < nodeCount; i++) {
+                nodes.add(new ClusterNode("node" + (i + 1), "localhost", freePort()));
+            }
+            String members = nodes.stream()
+                .map(node -> node.getId() + "@" + node.getHost() + ":" + node.getPort())
+                .collect(Collectors.joining(","));
+            String internalToken = UUID.randomUUID().toString();
+
+            for (ClusterNode node : nodes) {
+                processes.add(new ProcessBuilder(
+                        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Djava.util.logging.config.file=" + loggingConfig,
+                        "-Dorder.cluster.nodes=" + members,
+                        "-Dorder.cluster.self=" + node.getId(),
+                        "-Dorder.cluster.virtualNodes=" + VIRTUAL_NODES,
+                        "-Dorder.cluster.token=" + internalToken,
+                        "-Dorder.archive.dir=" + workDir.resolve("archive"),
+                        OrderServer.class.getName())
+                    .redirectErrorStream(true)
+                    .redirectOutput(workDir.resolve(node.getId() + ".log").toFile())
+                    .start());
+            }
+
+            Metadata headers = new Metadata();
+            headers.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER),
+                "Bearer benchmark-user-token-0123456789");
+            for (int i = 0; i < nodes.size(); i++) {
+                ClusterNode node = nodes.get(i);
+                awaitStartup(node, processes.get(i));
+                ManagedChannel channel = ManagedChannelBuilder.forAddress(node.getHost(), node.getPort())
+                    .usePlaintext()
+                    .build();
+                channels.add(channel);
+                OrderServiceGrpc.OrderServiceBlockingStub stub = OrderServiceGrpc.newBlockingStub(channel)
+                    .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+                stubs.add(stub);
+                ownerStubs.put(node, stub);
+                asyncStubs.add(OrderServiceGrpc.newStub(channel)
+                    .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers)));
+            }
+            ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+
+            // 조회/처리 변형이 생성 비용 없이 사용할 주문을 미리 만들어 둠
+            for (int i = 0; i < SEEDED_ORDERS; i++) {
+                seededOrderIds.add(anyNode().createOrder(CREATE_REQUEST).getOrderId());
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            for (ManagedChannel channel : channels) {
+                channel.shutdownNow();
+            }
+            // SIGTERM으로 종료 훅을 실행시켜 노드가 정상 종료되도록 함
+            for (Process process : processes) {
+                process.destroy();
+            }
+            for (Process process : processes) {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            try (Stream<Path> paths = Files.walk(workDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        OrderServiceGrpc.OrderServiceBlockingStub anyNode() {
+            return stubs.get(ThreadLocalRandom.current().nextInt(stubs.size()));
+        }
+
+        OrderServiceGrpc.OrderServiceBlockingStub ownerOf(String orderId) {
+            return ownerStubs.get(ring.ownerOf(orderId));
+        }
+
+        OrderServiceGrpc.OrderServiceStub anyAsyncNode() {
+            return asyncStubs.get(ThreadLocalRandom.current().nextInt(asyncStubs.size()));
+        }
+
+        String anySeededOrderId() {
+            return seededOrderIds.get(ThreadLocalRandom.current().nextInt(seededOrderIds.size()));
+        }
+
+        private void awaitStartup(ClusterNode node, Process process) throws Exception {
+            long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+            while (System.currentTimeMillis() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Node " + node.getId() + " exited, see "
+                        + workDir.resolve(node.getId() + ".log"));
+                }
+                try (Socket socket = new Socket()) {
+                    socket.connect(new InetSocketAddress(node.getHost(), node.getPort()), 200);
+                    return;
+                } catch (IOException e) {
+                    Thread.sleep(100);
+                }
+            }
+            throw new IllegalStateException("Node " + node.getId() + " did not start in time");
+        }
+
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+
+    /**
+     * 기준선: 한 작업 = 임의 노드에 주문 생성 + 소유 노드에서 조회 (RPC 2회, 전달 없음)
+     */
+    @Benchmark
+    public OrderResponse createThenGet(Cluster cluster) {
+        OrderResponse created = cluster.anyNode().createOrder(CREATE_REQUEST);
+        return cluster.ownerOf(created.getOrderId()).getOrder(GetOrderRequest.newBuilder()
+            .setOrderId(created.getOrderId())
+            .build());
+    }
+
+    /**
+     * createThenGet과 같은 작업이지만 조회를 임의 노드로 보내 전달 경로를 포함
+     */
+    @Benchmark
+    public OrderResponse createThenGetFromAnyNode(Cluster cluster) {
+        OrderResponse created = cluster.anyNode().createOrder(CREATE_REQUEST);
+        return cluster.anyNode().getOrder(GetOrderRequest.newBuilder()
+            .setOrderId(created.getOrderId())
+            .build());
+    }
+
+    /**
+     * 한 작업 = 임의 노드에 ProcessOrders 스트림을 열고 미리 만든 주문 10건을 처리
+     * 스트림을 받은 노드는 소유 노드별로 원격 스트림을 열어 요청을 나눠 보냄
+     */
+    @Benchmark
+    public int processOrdersOnAnyNode(Cluster cluster) throws Exception {
+        CompletableFuture<Integer> done = new CompletableFuture<>();
+        StreamObserver<OrderProcessRequest> requests = cluster.anyAsyncNode().processOrders(
+            new StreamObserver<OrderProcessResponse>() {
+                private int succeeded;
+
+                @Override
+                public void onNext(OrderProcessResponse response) {
+                    if (response.getSuccess()) {
+                        succeeded++;
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    done.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    done.complete(succeeded);
+                }
+            });
+        for (int i = 0; i < PROCESS_BATCH_SIZE; i++) {
+            requests.onNext(OrderProcessRequest.newBuilder()
+                .setOrderId(cluster.anySeededOrderId())
+                .setAction(ProcessAction.CONFIRM)
+                .build());
+        }
+        requests.onCompleted();
+
+        int succeeded = done.get(30, TimeUnit.SECONDS);
+        if (succeeded != PROCESS_BATCH_SIZE) {
+            throw new IllegalStateException("Only " + succeeded + " of " + PROCESS_BATCH_SIZE + " orders processed");
+        }
+        return succeeded;
+    }
+}
@@ -31,10 +31,10 @@ public class OrderClient {
         Metadata.Key<String> authKey = Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
         headers.put(authKey, "Bearer sample-token-12345678901234567890");
         
-        this.blockingStub = MetadataUtils.attachHeaders(
-            OrderServiceGrpc.newBlockingStub(channel), headers);
-        this.asyncStub = MetadataUtils.attachHeaders(
-            OrderServiceGrpc.newStub(channel), headers);
+        this.blockingStub = OrderServiceGrpc.newBlockingStub(channel)
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+        this.asyncStub = OrderServiceGrpc.newStub(channel)
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
     }
     
     /**
@@ -0,0 +1,68 @@
+package com.example.grpc.server;
+
+import com.example.grpc.order.OrderResponse;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 캐시에 직렬화된 바이트가 있으면 재직렬화 없이 그대로 전송하는 OrderResponse 마샬러
+ * 캐시에 없는 응답과 요청 파싱은 기본 protobuf 마샬러에 위임합니다
+ */
+class CachedOrderResponseMarshaller implements MethodDescriptor.PrototypeMarshaller<OrderResponse> {
+
+    private final MethodDescriptor.PrototypeMarshaller<OrderResponse> delegate =
+        (MethodDescriptor.PrototypeMarshaller<OrderResponse>) ProtoUtils.marshaller(OrderResponse.getDefaultInstance());
+    private final SerializedResponseCache cache;
+
+    CachedOrderResponseMarshaller(SerializedResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public InputStream stream(OrderResponse value) {
+        byte[] bytes = cache.bytesFor(value);
+        if (bytes == null) {
+            return delegate.stream(value);
+        }
+        return new CachedBytesStream(bytes);
+    }
+
+    @Override
+    public OrderResponse parse(InputStream stream) {
+        return delegate.parse(stream);
+    }
+
+    @Override
+    public OrderResponse getMessagePrototype() {
+        return delegate.getMessagePrototype();
+    }
+
+    @Override
+    public Class<OrderResponse> getMessageClass() {
+        return delegate.getMessageClass();
+    }
+
+    /**
+     * 길이를 미리 알려 gRPC 프레이머가 중간 버퍼 없이 바로 복사할 수 있는 스트림
+     */
+    private static class CachedBytesStream extends ByteArrayInputStream implements KnownLength, Drainable {
+
+        CachedBytesStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int drainTo(OutputStream target) throws IOException {
+            int length = count - pos;
+            target.write(buf, pos, length);
+            pos = count;
+            return length;
+        }
+    }
+}
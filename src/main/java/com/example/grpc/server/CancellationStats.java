@@ -0,0 +1,37 @@
+package com.example.grpc.server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CancellationStats {
+
+    private final LongAdder cancelledCalls = new LongAdder();
+    private final LongAdder unscheduledUpdates = new LongAdder();
+
+    /**
+     * 클라이언트 취소 또는 데드라인 초과로 중단된 호출 수를 기록합니다
+     */
+    void recordCancelledCall() {
+        cancelledCalls.increment();
+    }
+
+    /**
+     * 전송되기 전에 스케줄러에서 제거된 상태 업데이트 수를 기록합니다
+     */
+    void recordUnscheduledUpdates(int count) {
+        unscheduledUpdates.add(count);
+    }
+
+    public long getCancelledCalls() {
+        return cancelledCalls.sum();
+    }
+
+    public long getUnscheduledUpdates() {
+        return unscheduledUpdates.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CancellationStats{cancelledCalls=%d, unscheduledUpdates=%d}",
+            getCancelledCalls(), getUnscheduledUpdates());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.grpc.server;
+
+import com.example.grpc.order.OrderResponse;
+
+/**
+ * 저장소의 주문이 추가/변경되거나 메모리에서 제거될 때 알림을 받는 리스너
+ * 변경과 제거 알림은 해당 주문 키의 잠금 안에서 호출되므로, 같은 주문의 알림은 저장 순서대로 도착합니다.
+ * 구현은 저장소에 다시 접근하지 말고 빠르게 반환해야 합니다
+ */
+public interface OrderChangeListener {
+
+    /**
+     * 주문이 생성되거나 상태가 변경되어 저장된 후 호출됩니다
+     */
+    default void onOrderStored(OrderResponse order) {
+    }
+
+    /**
+     * 보존 기간이 지나 주문이 메모리에서 제거된 후 호출됩니다
+     */
+    default void onOrderEvicted(OrderResponse order) {
+    }
+}
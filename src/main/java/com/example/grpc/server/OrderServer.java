@@ -1,10 +1,16 @@
 package com.example.grpc.server;
 
+import com.example.grpc.server.cluster.ClusterConfig;
+import com.example.grpc.server.cluster.OrderCluster;
 import com.example.grpc.server.interceptor.AuthInterceptor;
+import com.example.grpc.server.interceptor.ClusterContextInterceptor;
 import com.example.grpc.server.interceptor.LoggingInterceptor;
+import com.example.grpc.server.retention.RetentionPolicy;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.ServerServiceDefinition;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -13,33 +19,63 @@ public class OrderServer {
     private static final Logger logger = Logger.getLogger(OrderServer.class.getName());
     private static final int PORT = 9090;
     
+    private final int port;
+    private final ClusterConfig clusterConfig;
     private Server server;
     private OrderServiceImpl orderService;
+    private OrderCluster cluster;
+    
+    /**
+     * 시스템 프로퍼티의 클러스터 구성으로 서버를 생성합니다 (구성이 없으면 단일 서버 모드)
+     */
+    public OrderServer() {
+        this(ClusterConfig.fromSystemProperties());
+    }
+    
+    /**
+     * 클러스터 노드로 서버를 생성합니다. clusterConfig가 null이면 기본 포트의 단일 서버
+     */
+    public OrderServer(ClusterConfig clusterConfig) {
+        this.clusterConfig = clusterConfig;
+        this.port = clusterConfig != null ? clusterConfig.getSelf().getPort() : PORT;
+    }
     
     /**
      * gRPC 서버를 시작하고 인터셉터를 등록합니다
      */
     public void start() throws IOException {
-        orderService = new OrderServiceImpl();
+        ServerBuilder<?> builder = ServerBuilder.forPort(port);
         
-        server = ServerBuilder.forPort(PORT)
-            .addService(orderService)
+        if (clusterConfig == null) {
+            orderService = new OrderServiceImpl();
+            builder.addService(orderService.bindServiceWithResponseCache());
+        } else {
+            // 같은 디렉터리에서 여러 노드를 실행할 수 있도록 노드별 아카이브 디렉터리 사용
+            cluster = new OrderCluster(clusterConfig);
+            orderService = new OrderServiceImpl(
+                RetentionPolicy.fromSystemProperties(),
+                Paths.get(System.getProperty("order.archive.dir", "order-archive"), clusterConfig.getSelf().getId()),
+                cluster.orderIdGenerator(),
+                cluster.changeListener());
+            for (ServerServiceDefinition service : cluster.bindServices(orderService)) {
+                builder.addService(service);
+            }
+        }
+        
+        if (clusterConfig != null) {
+            builder.intercept(new ClusterContextInterceptor(clusterConfig.getInternalToken()));
+        }
+        server = builder
             .intercept(new LoggingInterceptor())
             .intercept(new AuthInterceptor())
             .build()
             .start();
         
-        logger.info("서버가 시작되었습니다. 포트: " + PORT);
+        if (cluster != null) {
+            cluster.start();
+        }
         
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            System.err.println("JVM이 종료되면서 gRPC 서버를 종료합니다");
-            try {
-                OrderServer.this.stop();
-            } catch (InterruptedException e) {
-                e.printStackTrace(System.err);
-            }
-            System.err.println("서버가 종료되었습니다");
-        }));
+        logger.info("서버가 시작되었습니다. 포트: " + port);
     }
     
     /**
@@ -52,6 +88,9 @@ public class OrderServer {
         if (orderService != null) {
             orderService.shutdown();
         }
+        if (cluster != null) {
+            cluster.shutdown();
+        }
     }
     
     /**
@@ -65,10 +104,22 @@ public class OrderServer {
     
     /**
      * 메인 메서드: 서버를 시작하고 실행 상태를 유지합니다
+     * JVM 종료 훅은 프로세스당 한 번만 여기서 등록합니다 (같은 JVM에서 서버를 여러 번 시작해도 쌓이지 않음)
      */
     public static void main(String[] args) throws IOException, InterruptedException {
         final OrderServer server = new OrderServer();
         server.start();
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.err.println("JVM이 종료되면서 gRPC 서버를 종료합니다");
+            try {
+                server.stop();
+            } catch (InterruptedException e) {
+                e.printStackTrace(System.err);
+            }
+            System.err.println("서버가 종료되었습니다");
+        }));
+        
         server.blockUntilShutdown();
     }
 }
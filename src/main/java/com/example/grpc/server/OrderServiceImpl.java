@@ -1,27 +1,105 @@
 package com.example.grpc.server;
 
 import com.example.grpc.order.*;
+import com.example.grpc.server.retention.OrderArchive;
+import com.example.grpc.server.retention.RetentionManager;
+import com.example.grpc.server.retention.RetentionPolicy;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
     
     private static final Logger logger = Logger.getLogger(OrderServiceImpl.class.getName());
+    private static final int ARCHIVE_SEGMENT_CAPACITY = 10000;
+    private static final int RESPONSE_CACHE_CAPACITY = 100000;
+    
+    // 배송 추적 메시지는 상태별 템플릿을 복사해 주문 ID와 시각만 채움
+    private static final OrderStatusUpdate[] TRACKING_TEMPLATES = {
+        trackingTemplate(OrderStatus.CONFIRMED, "Order confirmed at warehouse"),
+        trackingTemplate(OrderStatus.PROCESSING, "Processing at distribution center"),
+        trackingTemplate(OrderStatus.SHIPPED, "Shipped from Seoul"),
+        trackingTemplate(OrderStatus.DELIVERED, "Delivered to customer")
+    };
+    private static final Map<ProcessAction, String> PROCESSED_MESSAGES = new EnumMap<>(ProcessAction.class);
+    
+    static {
+        for (ProcessAction action : ProcessAction.values()) {
+            PROCESSED_MESSAGES.put(action, "Order processed: " + action.name());
+        }
+    }
+    
     private final ConcurrentHashMap<String, OrderResponse> orders = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(10);
+    private final CancellationStats cancellationStats = new CancellationStats();
+    private final SerializedResponseCache responseCache = new SerializedResponseCache(orders, RESPONSE_CACHE_CAPACITY);
+    private final RetentionManager retention;
+    private final Supplier<String> orderIdGenerator;
+    private final OrderChangeListener changeListener;
+    
+    /**
+     * 시스템 프로퍼티의 보존 정책과 아카이브 경로(order.archive.dir)로 서비스를 생성
+     */
+    public OrderServiceImpl() throws IOException {
+        this(RetentionPolicy.fromSystemProperties(),
+            Paths.get(System.getProperty("order.archive.dir", "order-archive")));
+    }
+    
+    /**
+     * 보존 정책과 아카이브 디렉터리를 지정하여 서비스를 생성
+     */
+    public OrderServiceImpl(RetentionPolicy retentionPolicy, Path archiveDirectory) throws IOException {
+        this(retentionPolicy, archiveDirectory, () -> UUID.randomUUID().toString(), new OrderChangeListener() { });
+    }
+    
+    /**
+     * 주문 ID 생성기와 주문 변경 리스너를 지정하여 서비스를 생성
+     * 클러스터 모드에서 자기 파티션에 속하는 ID 발급과 팔로워 복제에 사용
+     */
+    public OrderServiceImpl(RetentionPolicy retentionPolicy, Path archiveDirectory,
+            Supplier<String> orderIdGenerator, OrderChangeListener changeListener) throws IOException {
+        this.orderIdGenerator = orderIdGenerator;
+        this.changeListener = changeListener;
+        
+        // 취소된 상태 업데이트가 큐에 남아 스케줄러 슬롯을 차지하지 않도록 즉시 제거
+        scheduler.setRemoveOnCancelPolicy(true);
+        
+        retention = new RetentionManager(orders, retentionPolicy,
+            new OrderArchive(archiveDirectory, ARCHIVE_SEGMENT_CAPACITY),
+            evicted -> {
+                responseCache.invalidate(evicted.getOrderId());
+                changeListener.onOrderEvicted(evicted);
+            });
+        retention.start(scheduler);
+    }
     
     /**
      * Unary RPC: 단일 주문을 생성하고 주문 정보를 반환
      */
     @Override
     public void createOrder(CreateOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+        if (rejectIfCancelled(responseObserver)) {
+            return;
+        }
+        
         try {
             validateCreateOrderRequest(request);
             
-            String orderId = UUID.randomUUID().toString();
+            String orderId = orderIdGenerator.get();
             double totalAmount = calculateTotalAmount(request.getItemsList());
             
             OrderResponse response = OrderResponse.newBuilder()
@@ -33,6 +111,7 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
                 .build();
             
             orders.put(orderId, response);
+            changeListener.onOrderStored(response);
             logger.info("Created order: " + orderId);
             
             responseObserver.onNext(response);
@@ -55,11 +134,21 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
     
     /**
      * Unary RPC: 주문 ID로 주문 정보를 조회
+     * 메모리에 없으면 만료되어 아카이브로 옮겨진 주문을 조회
      */
     @Override
     public void getOrder(GetOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+        if (rejectIfCancelled(responseObserver)) {
+            return;
+        }
+        
         String orderId = request.getOrderId();
         OrderResponse order = orders.get(orderId);
+        if (order != null) {
+            responseCache.cache(order);
+        } else {
+            order = retention.findArchived(orderId);
+        }
         
         if (order == null) {
             responseObserver.onError(
@@ -77,9 +166,14 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
     /**
      * Server Streaming RPC: 주문 상태를 실시간으로 스트리밍
      * 주문 생성부터 배송 완료까지의 상태 변화를 클라이언트에게 전송
+     * 호출이 취소되거나 데드라인을 넘기면 남은 업데이트를 스케줄러에서 제거
      */
     @Override
     public void trackOrder(TrackOrderRequest request, StreamObserver<OrderStatusUpdate> responseObserver) {
+        if (rejectIfCancelled(responseObserver)) {
+            return;
+        }
+        
         String orderId = request.getOrderId();
         
         if (!orders.containsKey(orderId)) {
@@ -91,48 +185,82 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
             return;
         }
         
-        OrderStatus[] statusFlow = {
-            OrderStatus.CONFIRMED,
-            OrderStatus.PROCESSING,
-            OrderStatus.SHIPPED,
-            OrderStatus.DELIVERED
-        };
+        ServerCallStreamObserver<OrderStatusUpdate> serverObserver =
+            (ServerCallStreamObserver<OrderStatusUpdate>) responseObserver;
+        List<ScheduledFuture<?>> pendingUpdates = new ArrayList<>(TRACKING_TEMPLATES.length);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        AtomicInteger startedUpdates = new AtomicInteger();
         
-        String[] locations = {
-            "Order confirmed at warehouse",
-            "Processing at distribution center",
-            "Shipped from Seoul",
-            "Delivered to customer"
-        };
+        serverObserver.setOnCancelHandler(() -> {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            cancellationStats.recordCancelledCall();
+            int unscheduled;
+            synchronized (pendingUpdates) {
+                // 실행 중인 업데이트(이 업데이트의 onNext 안에서 취소된 경우)도 cancel()이 true를 반환하므로 시작 수로 계산
+                unscheduled = pendingUpdates.size() - startedUpdates.get();
+                for (ScheduledFuture<?> future : pendingUpdates) {
+                    future.cancel(false);
+                }
+                pendingUpdates.clear();
+            }
+            cancellationStats.recordUnscheduledUpdates(unscheduled);
+            logger.info(String.format("Tracking cancelled for order %s: %d updates unscheduled",
+                orderId, unscheduled));
+        });
         
-        for (int i = 0; i < statusFlow.length; i++) {
-            final int index = i;
-            scheduler.schedule(() -> {
-                OrderStatusUpdate update = OrderStatusUpdate.newBuilder()
-                    .setOrderId(orderId)
-                    .setStatus(statusFlow[index])
-                    .setLocation(locations[index])
-                    .setTimestamp(System.currentTimeMillis())
-                    .setDescription("Order status updated to " + statusFlow[index].name())
-                    .build();
-                
-                responseObserver.onNext(update);
+        Deadline deadline = Context.current().getDeadline();
+        
+        synchronized (pendingUpdates) {
+            for (int i = 0; i < TRACKING_TEMPLATES.length; i++) {
+                final int index = i;
+                long delaySeconds = i * 2L;
                 
-                if (index == statusFlow.length - 1) {
-                    responseObserver.onCompleted();
+                // 데드라인 이후에 전송될 업데이트는 어차피 버려지므로 예약하지 않음
+                if (deadline != null && deadline.timeRemaining(TimeUnit.SECONDS) < delaySeconds) {
+                    cancellationStats.recordUnscheduledUpdates(TRACKING_TEMPLATES.length - i);
+                    break;
                 }
-            }, i * 2, TimeUnit.SECONDS);
+                
+                pendingUpdates.add(scheduler.schedule(() -> {
+                    synchronized (pendingUpdates) {
+                        if (finished.get() || serverObserver.isCancelled()) {
+                            return;
+                        }
+                        startedUpdates.incrementAndGet();
+                        
+                        OrderStatusUpdate update = TRACKING_TEMPLATES[index].toBuilder()
+                            .setOrderId(orderId)
+                            .setTimestamp(System.currentTimeMillis())
+                            .build();
+                        
+                        responseObserver.onNext(update);
+                        
+                        if (index == TRACKING_TEMPLATES.length - 1) {
+                            finished.set(true);
+                            pendingUpdates.clear();
+                            responseObserver.onCompleted();
+                        }
+                    }
+                }, delaySeconds, TimeUnit.SECONDS));
+            }
         }
     }
     
     /**
      * Client Streaming RPC: 클라이언트로부터 여러 주문을 받아 일괄 처리
      * 모든 주문을 받은 후 처리 결과를 한 번에 반환
+     * 취소된 호출에는 gRPC가 이후 메시지와 onCompleted를 전달하지 않으므로 취소 횟수만 기록
      */
     @Override
     public StreamObserver<CreateOrderRequest> batchCreateOrders(
             StreamObserver<BatchOrderResponse> responseObserver) {
         
+        ServerCallStreamObserver<BatchOrderResponse> serverObserver =
+            (ServerCallStreamObserver<BatchOrderResponse>) responseObserver;
+        serverObserver.setOnCancelHandler(cancellationStats::recordCancelledCall);
+        
         return new StreamObserver<CreateOrderRequest>() {
             private final List<String> orderIds = new ArrayList<>();
             private int successCount = 0;
@@ -142,7 +270,7 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
             public void onNext(CreateOrderRequest request) {
                 try {
                     validateCreateOrderRequest(request);
-                    String orderId = UUID.randomUUID().toString();
+                    String orderId = orderIdGenerator.get();
                     double totalAmount = calculateTotalAmount(request.getItemsList());
                     
                     OrderResponse order = OrderResponse.newBuilder()
@@ -154,6 +282,7 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
                         .build();
                     
                     orders.put(orderId, order);
+                    changeListener.onOrderStored(order);
                     orderIds.add(orderId);
                     successCount++;
                     logger.info("Batch created order: " + orderId);
@@ -188,46 +317,21 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
     /**
      * Bidirectional Streaming RPC: 클라이언트와 서버가 동시에 주문 처리 요청과 응답을 스트리밍
      * 실시간으로 주문 상태를 변경하고 즉시 결과를 반환
+     * 취소된 호출에는 gRPC가 이후 요청을 전달하지 않으므로 취소 횟수만 기록
      */
     @Override
     public StreamObserver<OrderProcessRequest> processOrders(
             StreamObserver<OrderProcessResponse> responseObserver) {
         
+        ServerCallStreamObserver<OrderProcessResponse> serverObserver =
+            (ServerCallStreamObserver<OrderProcessResponse>) responseObserver;
+        serverObserver.setOnCancelHandler(cancellationStats::recordCancelledCall);
+        
         return new StreamObserver<OrderProcessRequest>() {
             
             @Override
             public void onNext(OrderProcessRequest request) {
-                String orderId = request.getOrderId();
-                OrderResponse order = orders.get(orderId);
-                
-                if (order == null) {
-                    OrderProcessResponse response = OrderProcessResponse.newBuilder()
-                        .setOrderId(orderId)
-                        .setSuccess(false)
-                        .setMessage("Order not found")
-                        .setNewStatus(OrderStatus.PENDING)
-                        .build();
-                    responseObserver.onNext(response);
-                    return;
-                }
-                
-                OrderStatus newStatus = getNewStatus(request.getAction());
-                OrderResponse updatedOrder = order.toBuilder()
-                    .setStatus(newStatus)
-                    .build();
-                
-                orders.put(orderId, updatedOrder);
-                
-                OrderProcessResponse response = OrderProcessResponse.newBuilder()
-                    .setOrderId(orderId)
-                    .setSuccess(true)
-                    .setMessage("Order processed: " + request.getAction().name())
-                    .setNewStatus(newStatus)
-                    .build();
-                
-                responseObserver.onNext(response);
-                logger.info(String.format("Processed order %s: %s -> %s",
-                    orderId, order.getStatus(), newStatus));
+                responseObserver.onNext(processOrder(request));
             }
             
             @Override
@@ -243,6 +347,129 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
         };
     }
     
+    /**
+     * 주문 처리 요청 하나를 적용하고 결과를 반환
+     * 보존 기간이 지나 아카이브된 주문(예: 배송 완료 후 환불)은 메모리로 다시 불러와 처리
+     * 주문이 없으면 실패 응답을 반환
+     */
+    public OrderProcessResponse processOrder(OrderProcessRequest request) {
+        String orderId = request.getOrderId();
+        OrderStatus newStatus = getNewStatus(request.getAction());
+        OrderResponse[] previous = new OrderResponse[1];
+        OrderResponse updatedOrder = null;
+        
+        while (updatedOrder == null) {
+            if (!orders.containsKey(orderId) && readmitArchived(orderId) == null) {
+                return OrderProcessResponse.newBuilder()
+                    .setOrderId(orderId)
+                    .setSuccess(false)
+                    .setMessage("Order not found")
+                    .setNewStatus(OrderStatus.PENDING)
+                    .build();
+            }
+            
+            // 같은 주문의 동시 변경이 서로 덮어쓰지 않고, 변경 알림(복제)이 저장 순서대로 나가도록 키 잠금 안에서 처리
+            updatedOrder = orders.computeIfPresent(orderId, (id, current) -> {
+                previous[0] = current;
+                OrderResponse updated = current.toBuilder()
+                    .setStatus(newStatus)
+                    .build();
+                changeListener.onOrderStored(updated);
+                return updated;
+            });
+        }
+        
+        responseCache.invalidate(orderId);
+        retention.track(updatedOrder);
+        
+        logger.info(String.format("Processed order %s: %s -> %s",
+            orderId, previous[0].getStatus(), newStatus));
+        
+        return OrderProcessResponse.newBuilder()
+            .setOrderId(orderId)
+            .setSuccess(true)
+            .setMessage(PROCESSED_MESSAGES.get(request.getAction()))
+            .setNewStatus(newStatus)
+            .build();
+    }
+    
+    /**
+     * 아카이브된 주문을 메모리 저장소에 다시 올림. 그 사이 다른 요청이 올렸다면 그 값을 반환
+     */
+    private OrderResponse readmitArchived(String orderId) {
+        OrderResponse archived = retention.findArchived(orderId);
+        if (archived == null) {
+            return null;
+        }
+        OrderResponse existing = orders.putIfAbsent(orderId, archived);
+        return existing != null ? existing : archived;
+    }
+    
+    /**
+     * GetOrder 응답에 캐시된 직렬화 바이트를 쓰는 마샬러를 적용하여 서비스를 바인딩
+     * bindService()는 final이므로 서버 등록 시 이 메서드의 결과를 사용
+     */
+    public ServerServiceDefinition bindServiceWithResponseCache() {
+        return withResponseCache(bindService());
+    }
+    
+    /**
+     * 주어진 서비스 정의의 GetOrder 메서드에 캐시 마샬러를 적용
+     * 이 서비스에 조회를 위임하는 다른 OrderService 구현(클러스터 라우터 등)에도 사용
+     */
+    public ServerServiceDefinition withResponseCache(ServerServiceDefinition definition) {
+        ServiceDescriptor original = definition.getServiceDescriptor();
+        String getOrderMethod = OrderServiceGrpc.getGetOrderMethod().getFullMethodName();
+        
+        List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+        ServiceDescriptor.Builder descriptor = ServiceDescriptor.newBuilder(original.getName())
+            .setSchemaDescriptor(original.getSchemaDescriptor());
+        
+        for (ServerMethodDefinition<?, ?> method : definition.getMethods()) {
+            if (method.getMethodDescriptor().getFullMethodName().equals(getOrderMethod)) {
+                method = withCachedResponses(method);
+            }
+            methods.add(method);
+            descriptor.addMethod(method.getMethodDescriptor());
+        }
+        
+        ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(descriptor.build());
+        for (ServerMethodDefinition<?, ?> method : methods) {
+            builder.addMethod(method);
+        }
+        return builder.build();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ServerMethodDefinition<GetOrderRequest, OrderResponse> withCachedResponses(
+            ServerMethodDefinition<?, ?> method) {
+        ServerMethodDefinition<GetOrderRequest, OrderResponse> getOrder =
+            (ServerMethodDefinition<GetOrderRequest, OrderResponse>) method;
+        return ServerMethodDefinition.create(
+            getOrder.getMethodDescriptor()
+                .toBuilder(getOrder.getMethodDescriptor().getRequestMarshaller(),
+                    new CachedOrderResponseMarshaller(responseCache))
+                .build(),
+            getOrder.getServerCallHandler());
+    }
+    
+    /**
+     * 호출이 이미 취소되었거나 데드라인을 넘겼으면 작업을 시작하지 않고 CANCELLED로 종료
+     */
+    private boolean rejectIfCancelled(StreamObserver<?> responseObserver) {
+        if (!Context.current().isCancelled()) {
+            return false;
+        }
+        
+        cancellationStats.recordCancelledCall();
+        responseObserver.onError(
+            Status.CANCELLED
+                .withDescription("Call cancelled before processing")
+                .asRuntimeException()
+        );
+        return true;
+    }
+    
     /**
      * 주문 생성 요청의 유효성을 검증
      */
@@ -267,6 +494,17 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
             .sum();
     }
     
+    /**
+     * 배송 추적 단계별로 변하지 않는 필드를 채운 메시지 템플릿을 생성
+     */
+    private static OrderStatusUpdate trackingTemplate(OrderStatus status, String location) {
+        return OrderStatusUpdate.newBuilder()
+            .setStatus(status)
+            .setLocation(location)
+            .setDescription("Order status updated to " + status.name())
+            .build();
+    }
+    
     /**
      * 처리 액션에 따른 새로운 주문 상태를 반환
      */
@@ -281,10 +519,34 @@ public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
         }
     }
     
+    /**
+     * 취소로 절약된 작업량 통계를 반환
+     */
+    public CancellationStats getCancellationStats() {
+        return cancellationStats;
+    }
+    
+    /**
+     * 주문 보존 관리자를 반환
+     */
+    public RetentionManager getRetentionManager() {
+        return retention;
+    }
+    
     /**
      * 서버 종료 시 스케줄러를 정리
+     * 실행 중인 만료 처리가 끝난 뒤 아카이브를 닫아 마지막으로 제거된 주문까지 기록
      */
-    public void shutdown() {
+    public void shutdown() throws InterruptedException {
+        logger.info("Cancellation summary: " + cancellationStats);
         scheduler.shutdown();
+        if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+            scheduler.shutdownNow();
+        }
+        try {
+            retention.close();
+        } catch (IOException e) {
+            logger.severe("Failed to flush order archive: " + e.getMessage());
+        }
     }
 }
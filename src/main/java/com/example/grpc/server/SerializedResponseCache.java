@@ -0,0 +1,107 @@
+package com.example.grpc.server;
+
+import com.example.grpc.order.OrderResponse;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 저장된 주문의 직렬화 결과를 주문 ID별로 보관하는 캐시
+ * 캐시된 바이트는 직렬화 당시의 OrderResponse 인스턴스와 동일한 객체에만 사용됩니다
+ * 저장소에 현재 들어 있는 주문만 캐시하며, 항목 수가 상한에 도달하면 클록(second-chance) 방식으로
+ * 최근에 사용되지 않은 항목 하나를 내보내고 새 주문을 받습니다
+ */
+public class SerializedResponseCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, OrderResponse> orders;
+    private final int maxEntries;
+    private final Object evictionLock = new Object();
+    // evictionLock으로 보호됨. 다 돌면 처음부터 다시 순회
+    private Iterator<Entry> clockHand;
+
+    SerializedResponseCache(Map<String, OrderResponse> orders, int maxEntries) {
+        this.orders = orders;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 주문의 직렬화 결과가 없거나 이전 버전의 것이면 새로 직렬화하여 저장합니다
+     * 저장 후 주문이 그새 변경되거나 제거되었으면 방금 넣은 항목을 되돌립니다.
+     * 저장소 변경 후 invalidate가 호출되므로, 이 확인과 합쳐 오래된 항목이 남지 않습니다
+     */
+    void cache(OrderResponse order) {
+        String orderId = order.getOrderId();
+        Entry current = entries.get(orderId);
+        if (current != null && current.order == order) {
+            return;
+        }
+        if (current == null && entries.size() >= maxEntries) {
+            evictOne();
+        }
+
+        Entry entry = new Entry(order, order.toByteArray());
+        entries.put(orderId, entry);
+        if (orders.get(orderId) != order) {
+            entries.remove(orderId, entry);
+        }
+    }
+
+    /**
+     * 같은 인스턴스에 대해 캐시된 바이트를 반환합니다. 없으면 null
+     */
+    byte[] bytesFor(OrderResponse order) {
+        Entry entry = entries.get(order.getOrderId());
+        if (entry == null || entry.order != order) {
+            return null;
+        }
+        entry.referenced = true;
+        return entry.bytes;
+    }
+
+    /**
+     * 시계 바늘을 돌리며 사용 표시가 있는 항목은 표시만 지우고, 표시가 없는 첫 항목을 내보냅니다
+     * 모든 항목에 표시가 있어도 두 바퀴 안에 하나를 내보냅니다
+     */
+    private void evictOne() {
+        synchronized (evictionLock) {
+            int budget = 2 * entries.size() + 1;
+            while (budget-- > 0) {
+                if (clockHand == null || !clockHand.hasNext()) {
+                    clockHand = entries.values().iterator();
+                    if (!clockHand.hasNext()) {
+                        return;
+                    }
+                }
+                Entry entry = clockHand.next();
+                if (entry.referenced) {
+                    entry.referenced = false;
+                } else if (entries.remove(entry.order.getOrderId(), entry)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 주문이 변경되거나 제거될 때 캐시된 바이트를 버립니다
+     */
+    void invalidate(String orderId) {
+        entries.remove(orderId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final OrderResponse order;
+        private final byte[] bytes;
+        private volatile boolean referenced;
+
+        Entry(OrderResponse order, byte[] bytes) {
+            this.order = order;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.grpc.server.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ClusterConfig {
+
+    private static final int DEFAULT_VIRTUAL_NODES = 128;
+    private static final int MIN_INTERNAL_TOKEN_LENGTH = 16;
+
+    private final List<ClusterNode> nodes;
+    private final ClusterNode self;
+    private final int virtualNodes;
+    private final String internalToken;
+
+    /**
+     * 클러스터 구성원 목록과 자기 노드 ID로 구성을 생성합니다
+     * internalToken은 노드 간 전달/복제 호출을 인증하는 공유 비밀값이며, 모든 노드가 같은 값을 사용해야 합니다
+     */
+    public ClusterConfig(List<ClusterNode> nodes, String selfId, int virtualNodes, String internalToken) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Cluster must contain at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        if (internalToken == null || internalToken.length() < MIN_INTERNAL_TOKEN_LENGTH) {
+            throw new IllegalArgumentException(
+                "Cluster internal token must be at least " + MIN_INTERNAL_TOKEN_LENGTH + " characters");
+        }
+        Set<String> ids = new HashSet<>();
+        ClusterNode found = null;
+        for (ClusterNode node : nodes) {
+            if (!ids.add(node.getId())) {
+                throw new IllegalArgumentException("Duplicate cluster node id: " + node.getId());
+            }
+            if (node.getId().equals(selfId)) {
+                found = node;
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException("Self node is not a cluster member: " + selfId);
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.self = found;
+        this.virtualNodes = virtualNodes;
+        this.internalToken = internalToken;
+    }
+
+    /**
+     * 시스템 프로퍼티에서 클러스터 구성을 읽습니다. order.cluster.nodes가 없으면 null (단일 서버 모드)
+     * 예: -Dorder.cluster.nodes=node1@localhost:9090,node2@localhost:9091 -Dorder.cluster.self=node1
+     *     -Dorder.cluster.token=<모든 노드가 공유하는 16자 이상의 비밀값>
+     */
+    public static ClusterConfig fromSystemProperties() {
+        String nodesProperty = System.getProperty("order.cluster.nodes");
+        if (nodesProperty == null || nodesProperty.isEmpty()) {
+            return null;
+        }
+
+        List<ClusterNode> nodes = new ArrayList<>();
+        for (String spec : nodesProperty.split(",")) {
+            nodes.add(ClusterNode.parse(spec.trim()));
+        }
+
+        String selfId = System.getProperty("order.cluster.self");
+        if (selfId == null) {
+            throw new IllegalArgumentException("order.cluster.self is required in cluster mode");
+        }
+
+        String internalToken = System.getProperty("order.cluster.token");
+        if (internalToken == null || internalToken.isEmpty()) {
+            throw new IllegalArgumentException("order.cluster.token is required in cluster mode");
+        }
+
+        return new ClusterConfig(nodes, selfId,
+            Integer.getInteger("order.cluster.virtualNodes", DEFAULT_VIRTUAL_NODES),
+            internalToken);
+    }
+
+    public List<ClusterNode> getNodes() {
+        return nodes;
+    }
+
+    public ClusterNode getSelf() {
+        return self;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public String getInternalToken() {
+        return internalToken;
+    }
+}
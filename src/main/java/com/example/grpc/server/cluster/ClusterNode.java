@@ -0,0 +1,64 @@
+package com.example.grpc.server.cluster;
+
+import java.util.Objects;
+
+public class ClusterNode {
+
+    private final String id;
+    private final String host;
+    private final int port;
+
+    public ClusterNode(String id, String host, int port) {
+        this.id = id;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * "노드ID@호스트:포트" 형식의 문자열을 파싱합니다
+     */
+    public static ClusterNode parse(String spec) {
+        int at = spec.indexOf('@');
+        int colon = spec.lastIndexOf(':');
+        if (at <= 0 || colon <= at + 1 || colon == spec.length() - 1) {
+            throw new IllegalArgumentException("Invalid cluster node (expected id@host:port): " + spec);
+        }
+        return new ClusterNode(
+            spec.substring(0, at).trim(),
+            spec.substring(at + 1, colon).trim(),
+            Integer.parseInt(spec.substring(colon + 1).trim()));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClusterNode)) {
+            return false;
+        }
+        return id.equals(((ClusterNode) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return id + "@" + host + ":" + port;
+    }
+}
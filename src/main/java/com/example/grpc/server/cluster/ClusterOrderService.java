@@ -0,0 +1,333 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.order.*;
+import com.example.grpc.server.OrderServiceImpl;
+import com.example.grpc.server.interceptor.ClusterContextInterceptor;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 주문 ID의 소유 노드를 기준으로 호출을 로컬 서비스 또는 소유 노드로 라우팅하는 OrderService
+ * 생성 요청은 항상 로컬에서 처리하며, 로컬 서비스는 자기 파티션에 속하는 ID만 발급합니다
+ */
+public class ClusterOrderService extends OrderServiceGrpc.OrderServiceImplBase {
+
+    private static final Logger logger = Logger.getLogger(ClusterOrderService.class.getName());
+
+    private final OrderServiceImpl local;
+    private final ConsistentHashRing ring;
+    private final ClusterNode self;
+    private final PeerChannels peers;
+    private final ReplicaStore replicas;
+    private final LongAdder forwardedCalls = new LongAdder();
+    private final LongAdder failoverReads = new LongAdder();
+
+    ClusterOrderService(OrderServiceImpl local, ConsistentHashRing ring, ClusterNode self,
+            PeerChannels peers, ReplicaStore replicas) {
+        this.local = local;
+        this.ring = ring;
+        this.self = self;
+        this.peers = peers;
+        this.replicas = replicas;
+    }
+
+    /**
+     * Unary RPC: 로컬 파티션에 주문을 생성
+     */
+    @Override
+    public void createOrder(CreateOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+        local.createOrder(request, responseObserver);
+    }
+
+    /**
+     * Unary RPC: 소유 노드에서 주문을 조회
+     * 소유 노드에 접근할 수 없으면 팔로워 노드의 복제본을 조회
+     */
+    @Override
+    public void getOrder(GetOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+        String orderId = request.getOrderId();
+        ClusterNode owner = ring.ownerOf(orderId);
+
+        if (owner.equals(self)) {
+            local.getOrder(request, responseObserver);
+            return;
+        }
+        if (isForwarded()) {
+            // 소유 노드 장애로 팔로워인 이 노드에 전달된 조회
+            serveReplica(request, responseObserver);
+            return;
+        }
+
+        forwardedCalls.increment();
+        peers.orderStub(owner).getOrder(request, new StreamObserver<OrderResponse>() {
+            @Override
+            public void onNext(OrderResponse response) {
+                responseObserver.onNext(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (Status.fromThrowable(t).getCode() == Status.Code.UNAVAILABLE) {
+                    failover(request, responseObserver);
+                } else {
+                    responseObserver.onError(t);
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        });
+    }
+
+    /**
+     * Server Streaming RPC: 소유 노드의 상태 스트림을 그대로 전달
+     */
+    @Override
+    public void trackOrder(TrackOrderRequest request, StreamObserver<OrderStatusUpdate> responseObserver) {
+        ClusterNode owner = ring.ownerOf(request.getOrderId());
+
+        if (owner.equals(self) || isForwarded()) {
+            local.trackOrder(request, responseObserver);
+            return;
+        }
+
+        forwardedCalls.increment();
+        peers.orderStub(owner).trackOrder(request, responseObserver);
+    }
+
+    /**
+     * Client Streaming RPC: 로컬 파티션에 주문을 일괄 생성
+     */
+    @Override
+    public StreamObserver<CreateOrderRequest> batchCreateOrders(
+            StreamObserver<BatchOrderResponse> responseObserver) {
+        return local.batchCreateOrders(responseObserver);
+    }
+
+    /**
+     * Bidirectional Streaming RPC: 요청마다 소유 노드를 찾아 로컬에서 처리하거나 소유 노드 스트림으로 전달
+     * 소유 노드별 스트림은 처음 필요할 때 열고, 모든 스트림이 끝나면 응답 스트림을 완료
+     * 소유 노드 하나에 장애가 나도 전체 스트림을 끊지 않고, 그 노드로 보낸 요청에만 실패 응답을 보냄
+     */
+    @Override
+    public StreamObserver<OrderProcessRequest> processOrders(
+            StreamObserver<OrderProcessResponse> responseObserver) {
+
+        ServerCallStreamObserver<OrderProcessResponse> serverObserver =
+            (ServerCallStreamObserver<OrderProcessResponse>) responseObserver;
+        // 취소 후 원격 노드의 응답이 도착해도 예외 없이 무시되도록 핸들러를 등록
+        serverObserver.setOnCancelHandler(() -> logger.fine("Cluster order processing stream cancelled"));
+
+        return new ProcessOrdersStream(serverObserver, isForwarded());
+    }
+
+    /**
+     * 한 ProcessOrders 호출의 라우팅 상태
+     * 응답 스트림 쓰기와 원격 스트림 목록은 responseLock으로 보호합니다
+     */
+    private class ProcessOrdersStream implements StreamObserver<OrderProcessRequest> {
+
+        private final ServerCallStreamObserver<OrderProcessResponse> responseObserver;
+        private final boolean forwarded;
+        private final Object responseLock = new Object();
+        private final Map<ClusterNode, RemoteStream> remoteStreams = new HashMap<>();
+        private final AtomicInteger openStreams = new AtomicInteger(1);
+        private boolean closed;
+
+        ProcessOrdersStream(ServerCallStreamObserver<OrderProcessResponse> responseObserver, boolean forwarded) {
+            this.responseObserver = responseObserver;
+            this.forwarded = forwarded;
+        }
+
+        @Override
+        public void onNext(OrderProcessRequest request) {
+            if (responseObserver.isCancelled()) {
+                return;
+            }
+
+            ClusterNode owner = ring.ownerOf(request.getOrderId());
+            if (owner.equals(self) || forwarded) {
+                OrderProcessResponse response = local.processOrder(request);
+                synchronized (responseLock) {
+                    if (!closed) {
+                        responseObserver.onNext(response);
+                    }
+                }
+                return;
+            }
+
+            RemoteStream stream;
+            boolean opened;
+            synchronized (responseLock) {
+                if (closed) {
+                    return;
+                }
+                stream = remoteStreams.get(owner);
+                opened = stream == null;
+                if (opened) {
+                    stream = new RemoteStream(owner);
+                    remoteStreams.put(owner, stream);
+                    openStreams.incrementAndGet();
+                }
+                // 전송 전에 등록해야 그 사이 스트림이 끊겨도 이 요청에 실패 응답을 보낼 수 있음
+                stream.outstanding.add(request.getOrderId());
+            }
+
+            // 원격 호출 시작과 전송은 잠금 밖에서 수행 (콜백이 같은 스레드에서 바로 호출될 수 있음)
+            if (opened) {
+                stream.requests = peers.orderStub(owner).processOrders(stream);
+            }
+            forwardedCalls.increment();
+            stream.requests.onNext(request);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            List<RemoteStream> streams;
+            synchronized (responseLock) {
+                closed = true;
+                streams = new ArrayList<>(remoteStreams.values());
+                remoteStreams.clear();
+            }
+            for (RemoteStream stream : streams) {
+                stream.requests.onError(t);
+            }
+            logger.severe("Error in cluster order processing stream: " + t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            List<RemoteStream> streams;
+            synchronized (responseLock) {
+                streams = new ArrayList<>(remoteStreams.values());
+            }
+            for (RemoteStream stream : streams) {
+                stream.requests.onCompleted();
+            }
+            completeOne();
+        }
+
+        /**
+         * 클라이언트 스트림과 원격 스트림이 모두 끝나면 응답 스트림을 완료합니다
+         */
+        private void completeOne() {
+            if (openStreams.decrementAndGet() == 0) {
+                synchronized (responseLock) {
+                    if (!closed) {
+                        closed = true;
+                        responseObserver.onCompleted();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 소유 노드 하나로 열린 ProcessOrders 스트림과 응답을 기다리는 주문 ID 목록
+         */
+        private class RemoteStream implements StreamObserver<OrderProcessResponse> {
+
+            private final ClusterNode owner;
+            private final ArrayDeque<String> outstanding = new ArrayDeque<>();
+            private StreamObserver<OrderProcessRequest> requests;
+
+            RemoteStream(ClusterNode owner) {
+                this.owner = owner;
+            }
+
+            @Override
+            public void onNext(OrderProcessResponse response) {
+                synchronized (responseLock) {
+                    outstanding.removeFirstOccurrence(response.getOrderId());
+                    if (!closed) {
+                        responseObserver.onNext(response);
+                    }
+                }
+            }
+
+            /**
+             * 응답받지 못한 요청마다 실패 응답을 보내고 스트림을 목록에서 뺍니다
+             * 같은 소유 노드로 가는 다음 요청은 새 스트림을 엽니다
+             */
+            @Override
+            public void onError(Throwable t) {
+                synchronized (responseLock) {
+                    remoteStreams.remove(owner, this);
+                    if (!closed) {
+                        logger.warning(String.format("Order owner node %s failed, %d requests not processed: %s",
+                            owner.getId(), outstanding.size(), Status.fromThrowable(t)));
+                        for (String orderId : outstanding) {
+                            responseObserver.onNext(OrderProcessResponse.newBuilder()
+                                .setOrderId(orderId)
+                                .setSuccess(false)
+                                .setMessage("Order owner node unavailable: " + owner.getId())
+                                .setNewStatus(OrderStatus.PENDING)
+                                .build());
+                        }
+                    }
+                    outstanding.clear();
+                }
+                completeOne();
+            }
+
+            @Override
+            public void onCompleted() {
+                completeOne();
+            }
+        }
+    }
+
+    /**
+     * 팔로워 노드에서 복제본을 조회합니다. 팔로워가 자기 자신이면 바로 복제본을 반환
+     */
+    private void failover(GetOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+        ClusterNode follower = ring.followerOf(request.getOrderId());
+        failoverReads.increment();
+
+        if (follower == null) {
+            responseObserver.onError(
+                Status.UNAVAILABLE
+                    .withDescription("Order owner node is unavailable")
+                    .asRuntimeException()
+            );
+            return;
+        }
+        if (follower.equals(self)) {
+            serveReplica(request, responseObserver);
+            return;
+        }
+        peers.orderStub(follower).getOrder(request, responseObserver);
+    }
+
+    private void serveReplica(GetOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+        OrderResponse replica = replicas.get(request.getOrderId());
+        if (replica == null) {
+            local.getOrder(request, responseObserver);
+            return;
+        }
+        responseObserver.onNext(replica);
+        responseObserver.onCompleted();
+    }
+
+    private static boolean isForwarded() {
+        return ClusterContextInterceptor.FORWARDED_CALL.get();
+    }
+
+    public long getForwardedCalls() {
+        return forwardedCalls.sum();
+    }
+
+    public long getFailoverReads() {
+        return failoverReads.sum();
+    }
+}
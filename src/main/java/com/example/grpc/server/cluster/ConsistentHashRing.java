@@ -0,0 +1,70 @@
+package com.example.grpc.server.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 가상 노드를 사용하는 일관된 해시 링
+ * 주문 ID의 소유 노드와, 링에서 그 다음에 위치한 팔로워 노드를 결정합니다
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, ClusterNode> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public ConsistentHashRing(List<ClusterNode> nodes, int virtualNodes) {
+        for (ClusterNode node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.getId() + "#" + i), node);
+            }
+        }
+        this.nodeCount = nodes.size();
+    }
+
+    /**
+     * 키를 소유하는 노드를 반환합니다
+     */
+    public ClusterNode ownerOf(String key) {
+        Map.Entry<Long, ClusterNode> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 링에서 소유 노드 다음에 위치한 다른 노드(복제 대상)를 반환합니다. 단일 노드면 null
+     */
+    public ClusterNode followerOf(String key) {
+        if (nodeCount < 2) {
+            return null;
+        }
+        long position = hash(key);
+        ClusterNode owner = ownerOf(key);
+        for (ClusterNode node : ring.tailMap(position, false).values()) {
+            if (!node.equals(owner)) {
+                return node;
+            }
+        }
+        for (ClusterNode node : ring.headMap(position, true).values()) {
+            if (!node.equals(owner)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * FNV-1a 64비트 해시에 비트 혼합을 더해 링 위의 위치를 계산합니다
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.server.interceptor.ClusterContextInterceptor;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+
+/**
+ * 노드 간 호출에 전달 표시 헤더와 클러스터 내부 토큰을 붙이는 클라이언트 인터셉터
+ * 원래 호출의 최종 사용자 토큰이 Context에 있으면 별도 헤더로 함께 전달합니다
+ */
+class ForwardingClientInterceptor implements ClientInterceptor {
+
+    private final String internalAuthorization;
+
+    ForwardingClientInterceptor(String internalToken) {
+        this.internalAuthorization = ClusterContextInterceptor.internalAuthorization(internalToken);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                String endUserToken = ClusterContextInterceptor.AUTHORIZATION.get();
+                headers.put(ClusterContextInterceptor.FORWARDED_HEADER, "true");
+                headers.put(ClusterContextInterceptor.AUTHORIZATION_HEADER, internalAuthorization);
+                if (endUserToken != null) {
+                    headers.put(ClusterContextInterceptor.END_USER_AUTHORIZATION_HEADER, endUserToken);
+                }
+                super.start(responseListener, headers);
+            }
+        };
+    }
+}
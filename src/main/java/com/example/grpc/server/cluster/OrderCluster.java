@@ -0,0 +1,122 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.server.OrderChangeListener;
+import com.example.grpc.server.OrderServiceImpl;
+import io.grpc.ManagedChannel;
+import io.grpc.ServerServiceDefinition;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * 클러스터 모드 구성 요소(해시 링, 노드 채널, 복제, 라우팅 서비스)를 묶어 관리합니다
+ */
+public class OrderCluster {
+
+    private static final Logger logger = Logger.getLogger(OrderCluster.class.getName());
+
+    private final ClusterConfig config;
+    private final ConsistentHashRing ring;
+    private final PeerChannels peers;
+    private final ReplicaStore replicas = new ReplicaStore();
+    private final Replicator replicator;
+    private final ScheduledExecutorService replicationExecutor = Executors.newSingleThreadScheduledExecutor();
+    private ClusterOrderService clusterService;
+
+    public OrderCluster(ClusterConfig config) {
+        this(config, new PeerChannels(config));
+    }
+
+    /**
+     * 노드별 채널 생성 방식을 지정합니다 (테스트에서 in-process 채널 사용)
+     */
+    OrderCluster(ClusterConfig config, Function<ClusterNode, ManagedChannel> channelFactory) {
+        this(config, new PeerChannels(config, channelFactory));
+    }
+
+    private OrderCluster(ClusterConfig config, PeerChannels peers) {
+        this.config = config;
+        this.ring = new ConsistentHashRing(config.getNodes(), config.getVirtualNodes());
+        this.peers = peers;
+        this.replicator = new Replicator(ring, config, peers);
+    }
+
+    /**
+     * 이 노드가 소유하는 파티션에 속하는 주문 ID만 생성하는 생성기를 반환합니다
+     * 노드가 N개면 평균 N번의 UUID 생성으로 자기 파티션의 ID를 얻습니다
+     */
+    public Supplier<String> orderIdGenerator() {
+        return () -> {
+            String orderId;
+            do {
+                orderId = UUID.randomUUID().toString();
+            } while (!ring.ownerOf(orderId).equals(config.getSelf()));
+            return orderId;
+        };
+    }
+
+    /**
+     * 로컬 주문 변경을 팔로워로 복제하는 리스너를 반환합니다
+     */
+    public OrderChangeListener changeListener() {
+        return replicator;
+    }
+
+    /**
+     * 라우팅 OrderService와 복제 수신 서비스를 바인딩합니다
+     */
+    public List<ServerServiceDefinition> bindServices(OrderServiceImpl local) {
+        clusterService = new ClusterOrderService(local, ring, config.getSelf(), peers, replicas);
+        return Arrays.asList(
+            local.withResponseCache(clusterService.bindService()),
+            new ReplicationService(replicas).bindService());
+    }
+
+    /**
+     * 비동기 복제를 시작합니다
+     */
+    public void start() {
+        replicator.start(replicationExecutor);
+        logger.info("Cluster node started: " + config.getSelf() + ", members: " + config.getNodes());
+    }
+
+    /**
+     * 남은 복제 기록을 전송하고 노드 채널을 종료합니다
+     */
+    public void shutdown() throws InterruptedException {
+        replicationExecutor.shutdown();
+        replicationExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        replicator.flush();
+        peers.shutdown();
+        logger.info(String.format(
+            "Cluster node stopped: %d forwarded, %d failover reads, %d replicated, %d dropped, %d retried batches, %d resyncs",
+            clusterService != null ? clusterService.getForwardedCalls() : 0,
+            clusterService != null ? clusterService.getFailoverReads() : 0,
+            replicator.getReplicatedRecords(),
+            replicator.getDroppedRecords(),
+            replicator.getRetriedBatches(),
+            replicator.getResyncs()));
+    }
+
+    public ClusterConfig getConfig() {
+        return config;
+    }
+
+    ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    ClusterOrderService getClusterService() {
+        return clusterService;
+    }
+
+    ReplicaStore getReplicaStore() {
+        return replicas;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.order.OrderReplicationGrpc;
+import com.example.grpc.order.OrderServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 자기 자신을 제외한 클러스터 노드별 gRPC 채널과 스텁
+ */
+class PeerChannels {
+
+    private final Map<ClusterNode, ManagedChannel> channels = new HashMap<>();
+    private final Map<ClusterNode, OrderServiceGrpc.OrderServiceStub> orderStubs = new HashMap<>();
+    private final Map<ClusterNode, OrderReplicationGrpc.OrderReplicationBlockingStub> replicationStubs = new HashMap<>();
+
+    PeerChannels(ClusterConfig config) {
+        this(config, node -> ManagedChannelBuilder.forAddress(node.getHost(), node.getPort())
+            .usePlaintext()
+            .build());
+    }
+
+    /**
+     * 노드별 채널 생성 방식을 지정합니다 (테스트에서 in-process 채널 사용)
+     */
+    PeerChannels(ClusterConfig config, Function<ClusterNode, ManagedChannel> channelFactory) {
+        ForwardingClientInterceptor interceptor = new ForwardingClientInterceptor(config.getInternalToken());
+        for (ClusterNode node : config.getNodes()) {
+            if (node.equals(config.getSelf())) {
+                continue;
+            }
+            ManagedChannel channel = channelFactory.apply(node);
+            channels.put(node, channel);
+            orderStubs.put(node, OrderServiceGrpc.newStub(channel).withInterceptors(interceptor));
+            replicationStubs.put(node, OrderReplicationGrpc.newBlockingStub(channel).withInterceptors(interceptor));
+        }
+    }
+
+    OrderServiceGrpc.OrderServiceStub orderStub(ClusterNode node) {
+        return orderStubs.get(node);
+    }
+
+    OrderReplicationGrpc.OrderReplicationBlockingStub replicationStub(ClusterNode node) {
+        return replicationStubs.get(node);
+    }
+
+    /**
+     * 모든 노드 채널을 종료합니다
+     */
+    void shutdown() throws InterruptedException {
+        for (ManagedChannel channel : channels.values()) {
+            channel.shutdown();
+        }
+        for (ManagedChannel channel : channels.values()) {
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.ReplicationRecord;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 다른 노드가 소유한 파티션에서 복제되어 온 주문 사본
+ * 소유 노드에 접근할 수 없을 때 조회용으로만 사용됩니다
+ * 주문별로 가장 높은 버전만 남기므로 기록이 늦게 또는 중복으로 도착해도 최신 상태가 유지됩니다
+ */
+class ReplicaStore {
+
+    private final ConcurrentHashMap<String, Replica> replicas = new ConcurrentHashMap<>();
+    private final String epoch = UUID.randomUUID().toString();
+
+    /**
+     * 기록의 버전이 보관 중인 사본보다 높을 때만 적용합니다. 적용했으면 true
+     */
+    boolean apply(String sourceNode, ReplicationRecord record) {
+        boolean[] applied = {false};
+        replicas.compute(record.getOrder().getOrderId(), (orderId, current) -> {
+            if (current != null && current.version >= record.getVersion()) {
+                return current;
+            }
+            applied[0] = true;
+            return record.getEvicted() ? null : new Replica(sourceNode, record.getVersion(), record.getOrder());
+        });
+        return applied[0];
+    }
+
+    /**
+     * 전체 재동기화 전에 해당 소스 노드에서 받은 사본을 모두 지웁니다
+     */
+    void removeFrom(String sourceNode) {
+        replicas.values().removeIf(replica -> replica.sourceNode.equals(sourceNode));
+    }
+
+    OrderResponse get(String orderId) {
+        Replica replica = replicas.get(orderId);
+        return replica != null ? replica.order : null;
+    }
+
+    int size() {
+        return replicas.size();
+    }
+
+    /**
+     * 이 저장소 인스턴스의 식별자. 프로세스가 재시작되면 바뀝니다
+     */
+    String getEpoch() {
+        return epoch;
+    }
+
+    private static class Replica {
+        private final String sourceNode;
+        private final long version;
+        private final OrderResponse order;
+
+        Replica(String sourceNode, long version, OrderResponse order) {
+            this.sourceNode = sourceNode;
+            this.version = version;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.order.OrderReplicationGrpc;
+import com.example.grpc.order.ReplicationAck;
+import com.example.grpc.order.ReplicationBatch;
+import com.example.grpc.order.ReplicationRecord;
+import io.grpc.stub.StreamObserver;
+import java.util.logging.Logger;
+
+class ReplicationService extends OrderReplicationGrpc.OrderReplicationImplBase {
+
+    private static final Logger logger = Logger.getLogger(ReplicationService.class.getName());
+
+    private final ReplicaStore replicas;
+
+    ReplicationService(ReplicaStore replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * 소유 노드가 보낸 변경 사항을 사본 저장소에 적용하고, 저장소 식별자를 함께 응답합니다
+     * 재동기화 묶음이면 해당 노드의 기존 사본을 지운 뒤 적용합니다
+     */
+    @Override
+    public void replicate(ReplicationBatch request, StreamObserver<ReplicationAck> responseObserver) {
+        if (request.getReset()) {
+            replicas.removeFrom(request.getSourceNode());
+            logger.info("Resynchronizing replicas from " + request.getSourceNode());
+        }
+        int applied = 0;
+        for (ReplicationRecord record : request.getRecordsList()) {
+            if (replicas.apply(request.getSourceNode(), record)) {
+                applied++;
+            }
+        }
+        logger.fine(String.format("Applied %d of %d replicated records from %s",
+            applied, request.getRecordsCount(), request.getSourceNode()));
+
+        responseObserver.onNext(ReplicationAck.newBuilder()
+            .setApplied(applied)
+            .setReplicaEpoch(replicas.getEpoch())
+            .build());
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.grpc.server.cluster;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.ReplicationAck;
+import com.example.grpc.order.ReplicationBatch;
+import com.example.grpc.order.ReplicationRecord;
+import com.example.grpc.server.OrderChangeListener;
+import io.grpc.StatusRuntimeException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 자기 파티션의 주문 변경 사항을 팔로워 노드로 비동기 복제합니다
+ * 노드별 큐에 쌓인 기록을 주기적으로 묶어서 전송하며, 전송에 실패한 묶음은 다음 주기에 그대로 다시 보냅니다
+ * 이 노드가 시작된 뒤 처음 연결될 때, 큐가 넘치거나 팔로워가 재시작되면 현재 주문 전체를 다시 보내 사본을 맞춥니다
+ */
+public class Replicator implements OrderChangeListener {
+
+    private static final Logger logger = Logger.getLogger(Replicator.class.getName());
+    private static final int QUEUE_CAPACITY = 100_000;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final long FLUSH_INTERVAL_MILLIS = 50;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+    private static final long REPLICATION_TIMEOUT_SECONDS = 5;
+    // 재시작 후에도 버전이 줄지 않도록 밀리초 시각 뒤에 순번 20비트를 붙임
+    private static final int VERSION_SEQUENCE_BITS = 20;
+
+    private final ConsistentHashRing ring;
+    private final ClusterNode self;
+    private final PeerChannels peers;
+    private final Map<ClusterNode, Follower> followers = new HashMap<>();
+    private final ConcurrentHashMap<String, ReplicationRecord> latestRecords = new ConcurrentHashMap<>();
+    private final AtomicLong lastVersion = new AtomicLong();
+    private final LongAdder replicatedRecords = new LongAdder();
+    private final LongAdder droppedRecords = new LongAdder();
+    private final LongAdder retriedBatches = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    Replicator(ConsistentHashRing ring, ClusterConfig config, PeerChannels peers) {
+        this.ring = ring;
+        this.self = config.getSelf();
+        this.peers = peers;
+        for (ClusterNode node : config.getNodes()) {
+            if (!node.equals(self)) {
+                followers.put(node, new Follower(node));
+            }
+        }
+    }
+
+    /**
+     * 주어진 스케줄러에서 주기적으로 복제 큐를 비웁니다
+     */
+    void start(ScheduledExecutorService executor) {
+        executor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 저장소가 같은 주문 키의 잠금 안에서 호출하므로, 버전 순서가 저장 순서와 같습니다
+     */
+    @Override
+    public void onOrderStored(OrderResponse order) {
+        enqueue(order, false);
+    }
+
+    @Override
+    public void onOrderEvicted(OrderResponse order) {
+        enqueue(order, true);
+    }
+
+    private void enqueue(OrderResponse order, boolean evicted) {
+        ClusterNode followerNode = ring.followerOf(order.getOrderId());
+        if (followerNode == null) {
+            return;
+        }
+        ReplicationRecord record = ReplicationRecord.newBuilder()
+            .setOrder(order)
+            .setEvicted(evicted)
+            .setVersion(nextVersion())
+            .build();
+        if (evicted) {
+            latestRecords.remove(order.getOrderId());
+        } else {
+            latestRecords.put(order.getOrderId(), record);
+        }
+
+        Follower follower = followers.get(followerNode);
+        if (!follower.queue.offer(record)) {
+            // 버린 기록은 재동기화 때 현재 상태로 다시 전송됨
+            droppedRecords.increment();
+            follower.needsResync = true;
+        }
+    }
+
+    private long nextVersion() {
+        long clock = System.currentTimeMillis() << VERSION_SEQUENCE_BITS;
+        return lastVersion.accumulateAndGet(clock, (last, now) -> Math.max(last + 1, now));
+    }
+
+    /**
+     * 팔로워별로 실패했던 묶음, 재동기화, 큐에 쌓인 기록 순서로 전송합니다
+     * 한 팔로워에 전송이 실패하면 그 팔로워는 다음 주기에 이어서 보내고 다른 팔로워로 넘어갑니다
+     */
+    void flush() {
+        for (Follower follower : followers.values()) {
+            try {
+                flush(follower);
+            } catch (StatusRuntimeException e) {
+                if (follower.available) {
+                    follower.available = false;
+                    logger.warning(String.format("Replication to %s failed, will retry: %s",
+                        follower.node, e.getStatus()));
+                }
+            }
+        }
+    }
+
+    private void flush(Follower follower) {
+        if (follower.pending != null) {
+            retriedBatches.increment();
+            send(follower, follower.pending);
+            follower.pending = null;
+        }
+        if (follower.needsResync) {
+            resync(follower);
+        }
+
+        List<ReplicationRecord> records = new ArrayList<>(MAX_BATCH_SIZE);
+        while (follower.queue.drainTo(records, MAX_BATCH_SIZE) > 0) {
+            ReplicationBatch batch = newBatch(records, false);
+            records.clear();
+            follower.pending = batch;
+            send(follower, batch);
+            follower.pending = null;
+            if (follower.needsResync) {
+                resync(follower);
+            }
+        }
+
+        // 변경이 없어도 주기적으로 빈 묶음을 보내 팔로워 재시작을 감지
+        if (System.currentTimeMillis() - follower.lastContactMillis >= HEARTBEAT_INTERVAL_MILLIS) {
+            send(follower, newBatch(records, false));
+        }
+    }
+
+    /**
+     * 이 팔로워에 복제되어야 할 현재 주문 전체를 보냅니다. 첫 묶음에서 팔로워의 기존 사본을 지웁니다
+     * 중간에 실패하면 다음 주기에 처음부터 다시 보냅니다
+     */
+    private void resync(Follower follower) {
+        follower.needsResync = false;
+        List<ReplicationRecord> snapshot = new ArrayList<>();
+        for (ReplicationRecord record : latestRecords.values()) {
+            if (follower.node.equals(ring.followerOf(record.getOrder().getOrderId()))) {
+                snapshot.add(record);
+            }
+        }
+
+        try {
+            int from = 0;
+            do {
+                int to = Math.min(from + MAX_BATCH_SIZE, snapshot.size());
+                send(follower, newBatch(snapshot.subList(from, to), from == 0));
+                from = to;
+            } while (from < snapshot.size());
+        } catch (StatusRuntimeException e) {
+            follower.needsResync = true;
+            throw e;
+        }
+        resyncs.increment();
+        logger.info(String.format("Resynchronized %d records to %s", snapshot.size(), follower.node));
+    }
+
+    private ReplicationBatch newBatch(List<ReplicationRecord> records, boolean reset) {
+        return ReplicationBatch.newBuilder()
+            .setSourceNode(self.getId())
+            .addAllRecords(records)
+            .setReset(reset)
+            .build();
+    }
+
+    private void send(Follower follower, ReplicationBatch batch) {
+        ReplicationAck ack = peers.replicationStub(follower.node)
+            .withDeadlineAfter(REPLICATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .replicate(batch);
+        replicatedRecords.add(batch.getRecordsCount());
+        follower.lastContactMillis = System.currentTimeMillis();
+        if (!follower.available) {
+            follower.available = true;
+            logger.info("Replication to " + follower.node + " recovered");
+        }
+
+        // 첫 연결이 아닌데 사본 저장소가 바뀌었으면 팔로워가 재시작되어 사본을 잃은 것
+        String epoch = ack.getReplicaEpoch();
+        if (follower.replicaEpoch != null && !follower.replicaEpoch.equals(epoch)) {
+            logger.info("Follower " + follower.node + " restarted, scheduling resync");
+            follower.needsResync = true;
+        }
+        follower.replicaEpoch = epoch;
+    }
+
+    public long getReplicatedRecords() {
+        return replicatedRecords.sum();
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    public long getRetriedBatches() {
+        return retriedBatches.sum();
+    }
+
+    public long getResyncs() {
+        return resyncs.sum();
+    }
+
+    /**
+     * 팔로워 노드별 전송 상태. queue와 needsResync 외에는 복제 스레드에서만 접근합니다
+     */
+    private static class Follower {
+        private final ClusterNode node;
+        private final LinkedBlockingQueue<ReplicationRecord> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        // 재시작 전에 보낸 사본 중 지금은 없는 주문이 팔로워에 남지 않도록, 첫 연결은 항상 재동기화로 시작
+        private volatile boolean needsResync = true;
+        private ReplicationBatch pending;
+        private String replicaEpoch;
+        private long lastContactMillis;
+        private boolean available = true;
+
+        Follower(ClusterNode node) {
+            this.node = node;
+        }
+    }
+}
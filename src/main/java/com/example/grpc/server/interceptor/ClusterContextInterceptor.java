@@ -0,0 +1,78 @@
+package com.example.grpc.server.interceptor;
+
+import com.example.grpc.order.OrderReplicationGrpc;
+import io.grpc.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.logging.Logger;
+
+public class ClusterContextInterceptor implements ServerInterceptor {
+    
+    private static final Logger logger = Logger.getLogger(ClusterContextInterceptor.class.getName());
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    public static final Metadata.Key<String> FORWARDED_HEADER =
+        Metadata.Key.of("x-order-forwarded", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Metadata.Key<String> AUTHORIZATION_HEADER =
+        Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Metadata.Key<String> END_USER_AUTHORIZATION_HEADER =
+        Metadata.Key.of("x-order-end-user-authorization", Metadata.ASCII_STRING_MARSHALLER);
+    
+    public static final Context.Key<Boolean> FORWARDED_CALL = Context.keyWithDefault("order-forwarded-call", false);
+    public static final Context.Key<String> AUTHORIZATION = Context.key("order-authorization");
+    
+    private final byte[] expectedAuthorization;
+    
+    /**
+     * 클러스터 내부 토큰으로 노드 간 호출을 식별하는 인터셉터를 생성합니다
+     */
+    public ClusterContextInterceptor(String internalToken) {
+        this.expectedAuthorization = internalAuthorization(internalToken).getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * 노드 간 호출의 authorization 헤더 값을 반환합니다
+     */
+    public static String internalAuthorization(String internalToken) {
+        return BEARER_PREFIX + internalToken;
+    }
+    
+    /**
+     * 다른 클러스터 노드가 전달한 호출인지와 최종 사용자의 인증 토큰을 Context에 기록합니다
+     * 전달 표시 헤더와 복제 RPC는 클러스터 내부 토큰을 제시한 호출에만 허용하고, 나머지는 거부합니다
+     * 노드 간 호출에서는 최종 사용자 토큰을 별도 헤더로 받아 다음 전달 시 그대로 사용합니다
+     */
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        
+        boolean internal = isInternal(headers.get(AUTHORIZATION_HEADER));
+        boolean forwarded = headers.containsKey(FORWARDED_HEADER);
+        boolean replication = OrderReplicationGrpc.SERVICE_NAME.equals(call.getMethodDescriptor().getServiceName());
+        
+        if (!internal && (forwarded || replication)) {
+            logger.warning("클러스터 내부 토큰 없이 노드 간 호출을 시도했습니다: " + call.getMethodDescriptor().getFullMethodName());
+            call.close(Status.PERMISSION_DENIED
+                .withDescription("클러스터 내부 호출만 허용됩니다"), new Metadata());
+            return new ServerCall.Listener<ReqT>() {};
+        }
+        
+        Context context = Context.current()
+            .withValue(FORWARDED_CALL, forwarded)
+            .withValue(AUTHORIZATION, internal
+                ? headers.get(END_USER_AUTHORIZATION_HEADER)
+                : headers.get(AUTHORIZATION_HEADER));
+        
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+    
+    /**
+     * authorization 헤더가 클러스터 내부 토큰인지 상수 시간으로 비교합니다
+     */
+    private boolean isInternal(String authorization) {
+        return authorization != null
+            && MessageDigest.isEqual(expectedAuthorization, authorization.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.grpc.server.retention;
+
+import com.example.grpc.order.OrderResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 해시드 타이밍 휠 방식의 만료 스케줄러
+ * 한 틱마다 해당 버킷 하나만 확인하므로 전체 주문 맵을 스캔하지 않습니다
+ */
+class ExpiryWheel {
+
+    private final long tickMillis;
+    private final ArrayDeque<Entry>[] buckets;
+    private final long startMillis;
+    private long currentTick;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ExpiryWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[wheelSize];
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * 주문 스냅샷을 만료 시각에 해당하는 버킷에 등록합니다
+     */
+    synchronized void schedule(OrderResponse snapshot, long expireAtMillis) {
+        long deadlineTick = Math.max(tickOf(expireAtMillis), currentTick);
+        int index = (int) (deadlineTick % buckets.length);
+        if (buckets[index] == null) {
+            buckets[index] = new ArrayDeque<>();
+        }
+        buckets[index].add(new Entry(snapshot, deadlineTick));
+    }
+
+    /**
+     * 현재 시각까지 휠을 진행시키고 만료된 스냅샷을 반환합니다
+     * 아직 회차가 남은 항목은 버킷에 그대로 둡니다
+     */
+    synchronized List<OrderResponse> advance(long nowMillis) {
+        List<OrderResponse> expired = new ArrayList<>();
+        long nowTick = tickOf(nowMillis);
+        while (currentTick <= nowTick) {
+            ArrayDeque<Entry> bucket = buckets[(int) (currentTick % buckets.length)];
+            if (bucket != null) {
+                Iterator<Entry> it = bucket.iterator();
+                while (it.hasNext()) {
+                    Entry entry = it.next();
+                    if (entry.deadlineTick <= currentTick) {
+                        expired.add(entry.snapshot);
+                        it.remove();
+                    }
+                }
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    /**
+     * 휠에 등록된 전체 항목 수를 반환합니다
+     */
+    synchronized int size() {
+        int size = 0;
+        for (ArrayDeque<Entry> bucket : buckets) {
+            if (bucket != null) {
+                size += bucket.size();
+            }
+        }
+        return size;
+    }
+
+    private long tickOf(long millis) {
+        return Math.max(0, (millis - startMillis) / tickMillis);
+    }
+
+    private static class Entry {
+        private final OrderResponse snapshot;
+        private final long deadlineTick;
+
+        Entry(OrderResponse snapshot, long deadlineTick) {
+            this.snapshot = snapshot;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
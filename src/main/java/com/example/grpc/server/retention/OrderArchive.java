@@ -0,0 +1,364 @@
+package com.example.grpc.server.retention;
+
+import com.example.grpc.order.OrderResponse;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 만료된 주문을 GZIP 압축 세그먼트 파일로 보관하는 느린 조회 계층
+ * 세그먼트마다 블룸 필터만 메모리에 두고, 조회 시 해당 세그먼트만 읽습니다
+ * 세그먼트 파일 쓰기는 아카이브 잠금 밖에서 수행되어 조회를 막지 않습니다
+ * 블룸 필터는 세그먼트 옆의 .bloom 파일에 함께 저장되어, 시작 시 세그먼트를 풀지 않고 복구합니다
+ */
+public class OrderArchive implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(OrderArchive.class.getName());
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".gz";
+    private static final String BLOOM_SUFFIX = ".bloom";
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final List<Segment> sealedSegments = new CopyOnWriteArrayList<>();
+    private final List<Map<String, OrderResponse>> sealingBuffers = new ArrayList<>();
+    private final Object sealLock = new Object();
+    private Map<String, OrderResponse> activeRecords = new LinkedHashMap<>();
+    private long nextSegmentId;
+
+    /**
+     * 보관 디렉터리를 열고 기존 세그먼트의 인덱스를 복구합니다
+     */
+    public OrderArchive(Path directory, int segmentCapacity) throws IOException {
+        if (segmentCapacity <= 0) {
+            throw new IllegalArgumentException("segmentCapacity must be positive");
+        }
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        Files.createDirectories(directory);
+        loadSegments();
+    }
+
+    /**
+     * 주문을 활성 버퍼에 추가하고, 용량이 차면 세그먼트 파일로 봉인합니다
+     * 파일 쓰기에 실패하면 기록을 활성 버퍼로 되돌려 다음 추가 시 다시 시도합니다
+     */
+    public void append(OrderResponse order) {
+        Map<String, OrderResponse> full;
+        synchronized (this) {
+            activeRecords.put(order.getOrderId(), order);
+            if (activeRecords.size() < segmentCapacity) {
+                return;
+            }
+            full = swapActiveRecords();
+        }
+
+        try {
+            seal(full);
+        } catch (IOException e) {
+            logger.severe("Failed to seal archive segment: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 주문 ID로 보관된 주문을 찾습니다. 없으면 null
+     * 같은 주문이 여러 번 보관된 경우 가장 최근 기록을 반환합니다
+     */
+    public OrderResponse find(String orderId) {
+        synchronized (this) {
+            OrderResponse active = activeRecords.get(orderId);
+            if (active != null) {
+                return active;
+            }
+            for (int i = sealingBuffers.size() - 1; i >= 0; i--) {
+                OrderResponse sealing = sealingBuffers.get(i).get(orderId);
+                if (sealing != null) {
+                    return sealing;
+                }
+            }
+        }
+
+        for (int i = sealedSegments.size() - 1; i >= 0; i--) {
+            Segment segment = sealedSegments.get(i);
+            if (!segment.mightContain(orderId)) {
+                continue;
+            }
+            try {
+                OrderResponse found = segment.read(orderId);
+                if (found != null) {
+                    return found;
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to read archive segment " + segment.path + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 봉인된 세그먼트 수를 반환합니다
+     */
+    public int getSegmentCount() {
+        return sealedSegments.size();
+    }
+
+    /**
+     * 남아 있는 활성 버퍼를 세그먼트로 봉인합니다
+     */
+    @Override
+    public void close() throws IOException {
+        Map<String, OrderResponse> remaining;
+        synchronized (this) {
+            if (activeRecords.isEmpty()) {
+                return;
+            }
+            remaining = swapActiveRecords();
+        }
+        seal(remaining);
+    }
+
+    /**
+     * 활성 버퍼를 봉인 대기 목록으로 옮기고 새 버퍼로 교체합니다. 아카이브 잠금 안에서 호출
+     */
+    private Map<String, OrderResponse> swapActiveRecords() {
+        Map<String, OrderResponse> full = activeRecords;
+        activeRecords = new LinkedHashMap<>();
+        sealingBuffers.add(full);
+        return full;
+    }
+
+    /**
+     * 봉인 대기 버퍼를 세그먼트 파일로 씁니다
+     * 세그먼트 번호 순서를 지키기 위해 봉인끼리만 직렬화하고, 조회용 잠금은 잡지 않습니다
+     */
+    private void seal(Map<String, OrderResponse> records) throws IOException {
+        synchronized (sealLock) {
+            try {
+                sealedSegments.add(writeSegment(records));
+                nextSegmentId++;
+            } catch (IOException e) {
+                synchronized (this) {
+                    // 봉인 이후 다시 보관된 더 최신 기록을 덮어쓰지 않도록 없는 것만 되돌림
+                    records.forEach(activeRecords::putIfAbsent);
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    sealingBuffers.removeIf(buffer -> buffer == records);
+                }
+            }
+        }
+    }
+
+    private Segment writeSegment(Map<String, OrderResponse> records) throws IOException {
+        Path target = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextSegmentId, SEGMENT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        Segment segment = new Segment(target, records.size());
+
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (OrderResponse order : records.values()) {
+                order.writeDelimitedTo(out);
+                segment.index(order.getOrderId());
+            }
+        }
+        // 블룸 필터를 먼저 옮겨, 세그먼트 파일이 보이는 시점에는 항상 필터 파일도 있도록 함
+        writeBloom(segment);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        logger.info("Sealed archive segment: " + target.getFileName());
+        return segment;
+    }
+
+    /**
+     * 기존 세그먼트의 블룸 필터를 불러옵니다
+     * 읽을 수 없는 세그먼트는 경고를 남기고 건너뛰며, 그 번호는 다시 쓰지 않도록 비워 둡니다
+     */
+    private void loadSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+
+        int skipped = 0;
+        for (Path path : paths) {
+            try {
+                String name = path.getFileName().toString();
+                long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                nextSegmentId = Math.max(nextSegmentId, id + 1);
+                sealedSegments.add(loadSegment(path));
+            } catch (IOException | RuntimeException e) {
+                skipped++;
+                logger.warning("Skipping unreadable archive segment " + path + ": " + e);
+            }
+        }
+
+        if (!paths.isEmpty()) {
+            logger.info(String.format("Loaded %d archive segments from %s (%d skipped)",
+                sealedSegments.size(), directory, skipped));
+        }
+    }
+
+    /**
+     * 블룸 필터 파일이 있으면 그것만 읽고, 없거나 손상되었으면 세그먼트를 읽어 다시 만든 뒤 저장합니다
+     */
+    private Segment loadSegment(Path path) throws IOException {
+        Path bloomPath = bloomPathOf(path);
+        if (Files.exists(bloomPath)) {
+            try {
+                return Segment.readBloom(path, bloomPath);
+            } catch (IOException e) {
+                logger.warning("Rebuilding bloom filter of " + path + ": " + e.getMessage());
+            }
+        }
+
+        List<OrderResponse> records = readAll(path);
+        Segment segment = new Segment(path, records.size());
+        for (OrderResponse order : records) {
+            segment.index(order.getOrderId());
+        }
+        try {
+            writeBloom(segment);
+        } catch (IOException e) {
+            logger.warning("Failed to write bloom filter of " + path + ": " + e.getMessage());
+        }
+        return segment;
+    }
+
+    private void writeBloom(Segment segment) throws IOException {
+        Path target = bloomPathOf(segment.path);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        segment.writeBloom(temp);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path bloomPathOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + BLOOM_SUFFIX);
+    }
+
+    private static List<OrderResponse> readAll(Path path) throws IOException {
+        List<OrderResponse> records = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            OrderResponse order;
+            while ((order = OrderResponse.parseDelimitedFrom(in)) != null) {
+                records.add(order);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 봉인된 세그먼트 파일과 해당 파일의 블룸 필터
+     */
+    private static class Segment {
+        private static final int BITS_PER_RECORD = 10;
+        private static final int HASH_COUNT = 3;
+        private static final int BLOOM_FORMAT_VERSION = 1;
+
+        private final Path path;
+        private final BitSet bloom;
+        private final int bitCount;
+
+        Segment(Path path, int recordCount) {
+            this(path, Math.max(64, recordCount * BITS_PER_RECORD), null);
+        }
+
+        private Segment(Path path, int bitCount, BitSet bloom) {
+            this.path = path;
+            this.bitCount = bitCount;
+            this.bloom = bloom != null ? bloom : new BitSet(bitCount);
+        }
+
+        /**
+         * 블룸 필터 파일 형식: 버전, 비트 수, long 워드 수, 워드들
+         */
+        void writeBloom(Path target) throws IOException {
+            long[] words = bloom.toLongArray();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+                out.writeInt(BLOOM_FORMAT_VERSION);
+                out.writeInt(bitCount);
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+
+        static Segment readBloom(Path path, Path bloomPath) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(bloomPath)))) {
+                int version = in.readInt();
+                if (version != BLOOM_FORMAT_VERSION) {
+                    throw new IOException("Unsupported bloom filter format: " + version);
+                }
+                int bitCount = in.readInt();
+                int length = in.readInt();
+                if (bitCount <= 0 || length < 0 || length > (bitCount + 63) / 64) {
+                    throw new IOException("Corrupt bloom filter header");
+                }
+                long[] words = new long[length];
+                for (int i = 0; i < length; i++) {
+                    words[i] = in.readLong();
+                }
+                return new Segment(path, bitCount, BitSet.valueOf(words));
+            }
+        }
+
+        void index(String orderId) {
+            int h1 = orderId.hashCode();
+            int h2 = secondaryHash(h1);
+            for (int i = 0; i < HASH_COUNT; i++) {
+                bloom.set(Math.floorMod(h1 + i * h2, bitCount));
+            }
+        }
+
+        boolean mightContain(String orderId) {
+            int h1 = orderId.hashCode();
+            int h2 = secondaryHash(h1);
+            for (int i = 0; i < HASH_COUNT; i++) {
+                if (!bloom.get(Math.floorMod(h1 + i * h2, bitCount))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        OrderResponse read(String orderId) throws IOException {
+            OrderResponse found = null;
+            try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                OrderResponse order;
+                while ((order = OrderResponse.parseDelimitedFrom(in)) != null) {
+                    if (order.getOrderId().equals(orderId)) {
+                        found = order;
+                    }
+                }
+            }
+            return found;
+        }
+
+        private static int secondaryHash(int h) {
+            h ^= (h >>> 16);
+            h *= 0x85ebca6b;
+            h ^= (h >>> 13);
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.grpc.server.retention;
+
+import com.example.grpc.order.OrderResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * 종료 상태 주문을 TTL 이후 메모리에서 제거하고 아카이브로 옮기는 보존 관리자
+ */
+public class RetentionManager implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(RetentionManager.class.getName());
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 3600;
+
+    private final ConcurrentMap<String, OrderResponse> orders;
+    private final RetentionPolicy policy;
+    private final OrderArchive archive;
+    private final ExpiryWheel wheel;
+    private final Consumer<OrderResponse> evictionListener;
+    private final LongAdder evictedOrders = new LongAdder();
+    private final LongAdder archiveHits = new LongAdder();
+    private final Object sweepLock = new Object();
+    private ScheduledFuture<?> sweepTask;
+    private boolean closed;
+
+    public RetentionManager(ConcurrentMap<String, OrderResponse> orders, RetentionPolicy policy, OrderArchive archive) {
+        this(orders, policy, archive, order -> { });
+    }
+
+    /**
+     * 주문이 메모리에서 제거될 때마다 호출될 리스너를 지정하여 생성합니다
+     */
+    public RetentionManager(ConcurrentMap<String, OrderResponse> orders, RetentionPolicy policy, OrderArchive archive,
+            Consumer<OrderResponse> evictionListener) {
+        this.orders = orders;
+        this.policy = policy;
+        this.archive = archive;
+        this.evictionListener = evictionListener;
+        this.wheel = new ExpiryWheel(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * 주어진 스케줄러에서 매 틱마다 만료 처리를 실행합니다
+     */
+    public void start(ScheduledExecutorService scheduler) {
+        sweepTask = scheduler.scheduleAtFixedRate(this::sweep, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Order retention started: " + policy);
+    }
+
+    /**
+     * 저장된 주문의 상태를 확인하고, 종료 상태면 TTL 후 만료되도록 등록합니다
+     */
+    public void track(OrderResponse order) {
+        Duration ttl = policy.ttlFor(order.getStatus());
+        if (ttl == null) {
+            return;
+        }
+        wheel.schedule(order, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    /**
+     * 메모리에서 찾지 못한 주문을 아카이브에서 조회합니다. 없으면 null
+     */
+    public OrderResponse findArchived(String orderId) {
+        OrderResponse order = archive.find(orderId);
+        if (order != null) {
+            archiveHits.increment();
+        }
+        return order;
+    }
+
+    /**
+     * 현재 틱까지 만료된 주문을 아카이브에 기록한 뒤 메모리에서 제거합니다
+     * 등록 이후 상태가 바뀐 주문은 스냅샷이 달라 제거되지 않습니다
+     */
+    void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    void sweep(long nowMillis) {
+        synchronized (sweepLock) {
+            if (closed) {
+                return;
+            }
+            try {
+                List<OrderResponse> expired = wheel.advance(nowMillis);
+                for (OrderResponse snapshot : expired) {
+                    if (orders.get(snapshot.getOrderId()) != snapshot) {
+                        continue;
+                    }
+                    // 제거 전에 먼저 보관해야 조회 시 두 계층 모두에서 사라지는 순간이 없음
+                    archive.append(snapshot);
+                    if (remove(snapshot)) {
+                        evictedOrders.increment();
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.severe("Order retention sweep failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 저장소의 주문이 아직 스냅샷과 같으면 제거하고 제거 알림을 보냅니다
+     * 알림을 같은 키 잠금 안에서 보내야, 이후 다시 저장된 같은 주문의 알림보다 앞서 전달됩니다
+     */
+    private boolean remove(OrderResponse snapshot) {
+        boolean[] removed = {false};
+        orders.computeIfPresent(snapshot.getOrderId(), (orderId, current) -> {
+            if (current != snapshot) {
+                return current;
+            }
+            removed[0] = true;
+            evictionListener.accept(snapshot);
+            return null;
+        });
+        return removed[0];
+    }
+
+    public long getEvictedOrders() {
+        return evictedOrders.sum();
+    }
+
+    public long getArchiveHits() {
+        return archiveHits.sum();
+    }
+
+    /**
+     * 만료 처리를 멈추고 아카이브의 남은 버퍼를 디스크에 기록합니다
+     * 진행 중인 만료 처리가 끝날 때까지 기다린 뒤 봉인하므로 마지막 기록이 유실되지 않습니다
+     */
+    @Override
+    public void close() throws IOException {
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+        }
+        synchronized (sweepLock) {
+            closed = true;
+        }
+        archive.close();
+        logger.info(String.format("Order retention stopped: %d evicted, %d archive hits",
+            getEvictedOrders(), getArchiveHits()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.grpc.server.retention;
+
+import com.example.grpc.order.OrderStatus;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class RetentionPolicy {
+
+    private static final String PROPERTY_PREFIX = "order.retention.ttl.";
+
+    private final Map<OrderStatus, Duration> ttls;
+
+    /**
+     * 종료 상태별 보존 기간(TTL)으로 정책을 생성합니다
+     * 종료 상태(DELIVERED, CANCELLED, REFUNDED)에만 TTL을 지정할 수 있습니다
+     */
+    public RetentionPolicy(Map<OrderStatus, Duration> ttls) {
+        EnumMap<OrderStatus, Duration> copy = new EnumMap<>(OrderStatus.class);
+        for (Map.Entry<OrderStatus, Duration> entry : ttls.entrySet()) {
+            if (!isTerminal(entry.getKey())) {
+                throw new IllegalArgumentException("TTL can only be set for terminal status: " + entry.getKey());
+            }
+            if (entry.getValue().isNegative() || entry.getValue().isZero()) {
+                throw new IllegalArgumentException("TTL must be positive: " + entry.getKey());
+            }
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        this.ttls = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * 기본 정책: 배송 완료/환불은 24시간, 취소는 1시간 보존
+     */
+    public static RetentionPolicy defaults() {
+        EnumMap<OrderStatus, Duration> ttls = new EnumMap<>(OrderStatus.class);
+        ttls.put(OrderStatus.DELIVERED, Duration.ofHours(24));
+        ttls.put(OrderStatus.CANCELLED, Duration.ofHours(1));
+        ttls.put(OrderStatus.REFUNDED, Duration.ofHours(24));
+        return new RetentionPolicy(ttls);
+    }
+
+    /**
+     * 기본 정책에 시스템 프로퍼티 값을 덮어씁니다
+     * 예: -Dorder.retention.ttl.DELIVERED=PT12H (ISO-8601 기간 형식)
+     */
+    public static RetentionPolicy fromSystemProperties() {
+        EnumMap<OrderStatus, Duration> ttls = new EnumMap<>(defaults().ttls);
+        for (OrderStatus status : ttls.keySet()) {
+            String value = System.getProperty(PROPERTY_PREFIX + status.name());
+            if (value != null) {
+                ttls.put(status, Duration.parse(value));
+            }
+        }
+        return new RetentionPolicy(ttls);
+    }
+
+    /**
+     * 주어진 상태의 TTL을 반환합니다. 만료 대상이 아니면 null
+     */
+    public Duration ttlFor(OrderStatus status) {
+        return ttls.get(status);
+    }
+
+    /**
+     * 자동 진행이 끝난 종료 상태인지 확인합니다
+     * 종료 상태라도 ProcessOrders로 상태를 바꿀 수 있으며(예: DELIVERED -> REFUNDED),
+     * 이미 아카이브된 주문은 이때 메모리로 다시 불러옵니다
+     */
+    public static boolean isTerminal(OrderStatus status) {
+        return status == OrderStatus.DELIVERED
+            || status == OrderStatus.CANCELLED
+            || status == OrderStatus.REFUNDED;
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy" + ttls;
+    }
+}
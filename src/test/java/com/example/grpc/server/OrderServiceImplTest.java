@@ -0,0 +1,201 @@
+package com.example.grpc.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.grpc.order.*;
+import com.example.grpc.server.retention.RetentionPolicy;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OrderServiceImplTest {
+
+    @Rule
+    public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private OrderServiceImpl orderService;
+    private OrderServiceGrpc.OrderServiceBlockingStub stub;
+    private OrderServiceGrpc.OrderServiceStub asyncStub;
+
+    @Before
+    public void setUp() throws Exception {
+        RetentionPolicy policy = new RetentionPolicy(Map.of(OrderStatus.DELIVERED, Duration.ofSeconds(1)));
+        orderService = new OrderServiceImpl(policy, folder.getRoot().toPath());
+
+        String serverName = InProcessServerBuilder.generateName();
+        grpcCleanup.register(InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(orderService.bindServiceWithResponseCache())
+            .build()
+            .start());
+        ManagedChannel channel = grpcCleanup.register(
+            InProcessChannelBuilder.forName(serverName).directExecutor().build());
+        stub = OrderServiceGrpc.newBlockingStub(channel);
+        asyncStub = OrderServiceGrpc.newStub(channel);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        orderService.shutdown();
+    }
+
+    private String createOrder() {
+        return stub.createOrder(createRequest()).getOrderId();
+    }
+
+    private static CreateOrderRequest createRequest() {
+        return CreateOrderRequest.newBuilder()
+            .setCustomerId("customer-1")
+            .addItems(OrderItem.newBuilder().setProductId("prod-1").setQuantity(2).setUnitPrice(1.0))
+            .setShippingAddress("address")
+            .build();
+    }
+
+    private OrderProcessResponse process(String orderId, ProcessAction action) {
+        return orderService.processOrder(OrderProcessRequest.newBuilder()
+            .setOrderId(orderId)
+            .setAction(action)
+            .build());
+    }
+
+    @Test
+    public void archivedDeliveredOrderCanStillBeRefunded() throws InterruptedException {
+        String orderId = createOrder();
+        assertTrue(process(orderId, ProcessAction.DELIVER).getSuccess());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (orderService.getRetentionManager().getEvictedOrders() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, orderService.getRetentionManager().getEvictedOrders());
+
+        OrderProcessResponse refund = process(orderId, ProcessAction.REFUND);
+
+        assertTrue(refund.getSuccess());
+        assertEquals(OrderStatus.REFUNDED, refund.getNewStatus());
+        OrderResponse order = stub.getOrder(GetOrderRequest.newBuilder().setOrderId(orderId).build());
+        assertEquals(OrderStatus.REFUNDED, order.getStatus());
+        assertEquals(2.0, order.getTotalAmount(), 0.0);
+    }
+
+    @Test
+    public void processingUnknownOrderFails() {
+        assertFalse(process("missing", ProcessAction.REFUND).getSuccess());
+    }
+
+    @Test
+    public void cancelledTrackingUnschedulesRemainingUpdates() throws InterruptedException {
+        String orderId = createOrder();
+        List<OrderStatusUpdate> updates = new CopyOnWriteArrayList<>();
+        CountDownLatch firstUpdate = new CountDownLatch(1);
+
+        asyncStub.trackOrder(TrackOrderRequest.newBuilder().setOrderId(orderId).build(),
+            new ClientResponseObserver<TrackOrderRequest, OrderStatusUpdate>() {
+                private ClientCallStreamObserver<TrackOrderRequest> call;
+
+                @Override
+                public void beforeStart(ClientCallStreamObserver<TrackOrderRequest> requestStream) {
+                    call = requestStream;
+                }
+
+                @Override
+                public void onNext(OrderStatusUpdate update) {
+                    updates.add(update);
+                    call.cancel("client no longer interested", null);
+                    firstUpdate.countDown();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+
+        assertTrue(firstUpdate.await(5, TimeUnit.SECONDS));
+        // 두 번째 업데이트 예정 시각(2초)을 넘겨도 더 오지 않아야 함
+        Thread.sleep(2500);
+        assertEquals(1, updates.size());
+        assertEquals(1, orderService.getCancellationStats().getCancelledCalls());
+        assertEquals(3, orderService.getCancellationStats().getUnscheduledUpdates());
+    }
+
+    @Test
+    public void trackingSkipsUpdatesPastDeadline() {
+        String orderId = createOrder();
+        List<OrderStatusUpdate> updates = new ArrayList<>();
+
+        try {
+            stub.withDeadlineAfter(3, TimeUnit.SECONDS)
+                .trackOrder(TrackOrderRequest.newBuilder().setOrderId(orderId).build())
+                .forEachRemaining(updates::add);
+            fail("Expected DEADLINE_EXCEEDED");
+        } catch (StatusRuntimeException e) {
+            assertEquals(Status.Code.DEADLINE_EXCEEDED, e.getStatus().getCode());
+        }
+
+        // 0초, 2초 업데이트만 예약되고 4초, 6초 업데이트는 예약하지 않음
+        assertEquals(2, updates.size());
+        assertEquals(2, orderService.getCancellationStats().getUnscheduledUpdates());
+    }
+
+    @Test
+    public void cancelledBatchIsNotAnswered() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(1);
+        List<BatchOrderResponse> responses = new CopyOnWriteArrayList<>();
+        Status[] status = new Status[1];
+
+        ClientCallStreamObserver<CreateOrderRequest> requests = (ClientCallStreamObserver<CreateOrderRequest>)
+            asyncStub.batchCreateOrders(new StreamObserver<BatchOrderResponse>() {
+                @Override
+                public void onNext(BatchOrderResponse response) {
+                    responses.add(response);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    status[0] = Status.fromThrowable(t);
+                    closed.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    closed.countDown();
+                }
+            });
+        requests.onNext(createRequest());
+        requests.onNext(createRequest());
+        requests.cancel("client gave up", null);
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertEquals(Status.Code.CANCELLED, status[0].getCode());
+        assertTrue(responses.isEmpty());
+        assertEquals(1, orderService.getCancellationStats().getCancelledCalls());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.grpc.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.OrderStatus;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+public class SerializedResponseCacheTest {
+
+    private final ConcurrentHashMap<String, OrderResponse> orders = new ConcurrentHashMap<>();
+
+    @Test
+    public void cachesCurrentOrderOnly() {
+        SerializedResponseCache cache = new SerializedResponseCache(orders, 10);
+        OrderResponse order = order("order-1", OrderStatus.PENDING);
+        orders.put("order-1", order);
+
+        cache.cache(order);
+
+        assertArrayEquals(order.toByteArray(), cache.bytesFor(order));
+        assertNull(cache.bytesFor(order.toBuilder().build()));
+    }
+
+    @Test
+    public void doesNotRecacheRemovedOrder() {
+        SerializedResponseCache cache = new SerializedResponseCache(orders, 10);
+        OrderResponse order = order("order-1", OrderStatus.DELIVERED);
+
+        // 조회 스레드가 주문을 읽은 뒤, 캐시하기 전에 만료 스윕이 주문을 제거하고 invalidate를 마친 상황
+        cache.cache(order);
+
+        assertNull(cache.bytesFor(order));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void doesNotCacheReplacedOrder() {
+        SerializedResponseCache cache = new SerializedResponseCache(orders, 10);
+        OrderResponse stale = order("order-1", OrderStatus.PENDING);
+        orders.put("order-1", order("order-1", OrderStatus.CONFIRMED));
+
+        cache.cache(stale);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void fullCacheStillAdmitsNewlyReadOrder() {
+        SerializedResponseCache cache = new SerializedResponseCache(orders, 2);
+        for (int i = 0; i < 5; i++) {
+            OrderResponse order = order("order-" + i, OrderStatus.PENDING);
+            orders.put(order.getOrderId(), order);
+            cache.cache(order);
+        }
+
+        assertEquals(2, cache.size());
+        assertArrayEquals(orders.get("order-4").toByteArray(), cache.bytesFor(orders.get("order-4")));
+    }
+
+    @Test
+    public void evictsUnreferencedEntryBeforeRecentlyReadOne() {
+        SerializedResponseCache cache = new SerializedResponseCache(orders, 2);
+        OrderResponse hot = order("order-hot", OrderStatus.PENDING);
+        OrderResponse cold = order("order-cold", OrderStatus.PENDING);
+        OrderResponse next = order("order-next", OrderStatus.PENDING);
+        orders.put(hot.getOrderId(), hot);
+        orders.put(cold.getOrderId(), cold);
+        orders.put(next.getOrderId(), next);
+        cache.cache(hot);
+        cache.cache(cold);
+        assertNotNull(cache.bytesFor(hot));
+
+        cache.cache(next);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.bytesFor(hot));
+        assertNotNull(cache.bytesFor(next));
+        assertNull(cache.bytesFor(cold));
+    }
+
+    @Test
+    public void replacesEntryAtCapacityWhenOrderChanges() {
+        SerializedResponseCache cache = new SerializedResponseCache(orders, 1);
+        OrderResponse pending = order("order-1", OrderStatus.PENDING);
+        orders.put("order-1", pending);
+        cache.cache(pending);
+
+        OrderResponse confirmed = order("order-1", OrderStatus.CONFIRMED);
+        orders.put("order-1", confirmed);
+        cache.cache(confirmed);
+
+        assertArrayEquals(confirmed.toByteArray(), cache.bytesFor(confirmed));
+    }
+
+    private static OrderResponse order(String orderId, OrderStatus status) {
+        return OrderResponse.newBuilder()
+            .setOrderId(orderId)
+            .setMessage("test order")
+            .setStatus(status)
+            .setTotalAmount(100.0)
+            .build();
+    }
+}
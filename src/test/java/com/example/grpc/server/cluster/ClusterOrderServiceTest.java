@@ -0,0 +1,282 @@
+package com.example.grpc.server.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.grpc.order.*;
+import com.example.grpc.server.OrderServiceImpl;
+import com.example.grpc.server.interceptor.ClusterContextInterceptor;
+import com.example.grpc.server.retention.RetentionPolicy;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * in-process 서버로 띄운 3노드 클러스터에서 라우팅, 전달, 장애 처리를 확인합니다
+ */
+public class ClusterOrderServiceTest {
+
+    private static final String INTERNAL_TOKEN = "cluster-test-internal-token";
+    private static final String USER_TOKEN = "Bearer cluster-test-user-token";
+
+    @Rule
+    public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<ClusterNode> nodes = Arrays.asList(
+        new ClusterNode("node1", "localhost", 1),
+        new ClusterNode("node2", "localhost", 2),
+        new ClusterNode("node3", "localhost", 3));
+    private final String serverPrefix = InProcessServerBuilder.generateName();
+    private final Map<String, OrderCluster> clusters = new HashMap<>();
+    private final Map<String, OrderServiceImpl> services = new HashMap<>();
+    private final Map<String, Server> servers = new HashMap<>();
+    private final Map<String, ManagedChannel> channels = new HashMap<>();
+    private final Map<String, OrderServiceGrpc.OrderServiceBlockingStub> stubs = new HashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        for (ClusterNode node : nodes) {
+            startNode(node);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (String nodeId : clusters.keySet()) {
+            services.get(nodeId).shutdown();
+            clusters.get(nodeId).shutdown();
+        }
+    }
+
+    @Test
+    public void getOrderForwardsToOwner() {
+        String orderId = createOn("node2");
+
+        OrderResponse order = getOn("node1", orderId);
+
+        assertEquals(orderId, order.getOrderId());
+        assertEquals(1, clusters.get("node1").getClusterService().getForwardedCalls());
+        assertEquals(0, clusters.get("node2").getClusterService().getForwardedCalls());
+    }
+
+    @Test
+    public void trackOrderForwardsToOwner() {
+        String orderId = createOn("node2");
+
+        Iterator<OrderStatusUpdate> updates = stubs.get("node1")
+            .withDeadlineAfter(1, TimeUnit.SECONDS)
+            .trackOrder(TrackOrderRequest.newBuilder().setOrderId(orderId).build());
+
+        assertEquals(orderId, updates.next().getOrderId());
+        assertEquals(1, clusters.get("node1").getClusterService().getForwardedCalls());
+    }
+
+    @Test
+    public void forwardedCallIsNotForwardedAgain() {
+        // node1이 소유하지 않고 복제본도 없는 ID: 전달된 호출이면 다시 전달하지 않고 로컬에서 처리
+        String orderId = unknownOrderIdOwnedBy("node2");
+        Metadata headers = new Metadata();
+        headers.put(ClusterContextInterceptor.AUTHORIZATION_HEADER,
+            ClusterContextInterceptor.internalAuthorization(INTERNAL_TOKEN));
+        headers.put(ClusterContextInterceptor.FORWARDED_HEADER, "true");
+
+        try {
+            OrderServiceGrpc.newBlockingStub(channels.get("node1"))
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                .getOrder(GetOrderRequest.newBuilder().setOrderId(orderId).build());
+            fail("Expected NOT_FOUND");
+        } catch (StatusRuntimeException e) {
+            assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+        }
+        assertEquals(0, clusters.get("node1").getClusterService().getForwardedCalls());
+    }
+
+    @Test
+    public void getOrderFailsOverToReplica() throws Exception {
+        String orderId = createOn("node2");
+        ClusterNode follower = clusters.get("node2").getRing().followerOf(orderId);
+        awaitReplica(follower.getId(), orderId);
+        stopNode("node2");
+
+        // 팔로워 자신에게 온 조회와, 다른 노드가 팔로워로 전달한 조회 모두 복제본을 반환
+        for (String entry : Arrays.asList("node1", "node3")) {
+            assertEquals(orderId, getOn(entry, orderId).getOrderId());
+        }
+        long failoverReads = clusters.get("node1").getClusterService().getFailoverReads()
+            + clusters.get("node3").getClusterService().getFailoverReads();
+        assertEquals(2, failoverReads);
+    }
+
+    @Test
+    public void processOrdersRoutesToOwners() throws Exception {
+        List<String> orderIds = Arrays.asList(createOn("node1"), createOn("node2"), createOn("node3"));
+
+        List<OrderProcessResponse> responses = processOn("node1", orderIds);
+
+        assertEquals(3, responses.size());
+        for (OrderProcessResponse response : responses) {
+            assertTrue(response.getMessage(), response.getSuccess());
+            assertEquals(OrderStatus.CONFIRMED, response.getNewStatus());
+        }
+        for (String orderId : orderIds) {
+            assertEquals(OrderStatus.CONFIRMED, getOn("node1", orderId).getStatus());
+        }
+    }
+
+    @Test
+    public void processOrdersFailsOnlyRequestsForUnreachableOwner() throws Exception {
+        String local = createOn("node1");
+        String remote = createOn("node2");
+        String unreachable = createOn("node3");
+        stopNode("node3");
+
+        List<OrderProcessResponse> responses = processOn("node1", Arrays.asList(unreachable, local, remote, unreachable));
+
+        assertEquals(4, responses.size());
+        for (OrderProcessResponse response : responses) {
+            assertEquals(response.getOrderId(), !response.getOrderId().equals(unreachable), response.getSuccess());
+        }
+        assertEquals(OrderStatus.CONFIRMED, getOn("node2", remote).getStatus());
+    }
+
+    private void startNode(ClusterNode node) throws Exception {
+        ClusterConfig config = new ClusterConfig(nodes, node.getId(), 16, INTERNAL_TOKEN);
+        OrderCluster cluster = new OrderCluster(config,
+            peer -> grpcCleanup.register(InProcessChannelBuilder.forName(serverPrefix + peer.getId()).build()));
+        OrderServiceImpl service = new OrderServiceImpl(RetentionPolicy.defaults(),
+            folder.newFolder(node.getId()).toPath(), cluster.orderIdGenerator(), cluster.changeListener());
+
+        InProcessServerBuilder builder = InProcessServerBuilder.forName(serverPrefix + node.getId());
+        for (ServerServiceDefinition definition : cluster.bindServices(service)) {
+            builder.addService(definition);
+        }
+        Server server = grpcCleanup.register(builder
+            .intercept(new ClusterContextInterceptor(INTERNAL_TOKEN))
+            .build()
+            .start());
+        cluster.start();
+
+        ManagedChannel channel = grpcCleanup.register(
+            InProcessChannelBuilder.forName(serverPrefix + node.getId()).build());
+
+        clusters.put(node.getId(), cluster);
+        services.put(node.getId(), service);
+        servers.put(node.getId(), server);
+        channels.put(node.getId(), channel);
+        stubs.put(node.getId(), OrderServiceGrpc.newBlockingStub(channel)
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(userHeaders())));
+    }
+
+    private void stopNode(String nodeId) throws Exception {
+        servers.get(nodeId).shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void awaitReplica(String nodeId, String orderId) throws InterruptedException {
+        ReplicaStore replicas = clusters.get(nodeId).getReplicaStore();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (replicas.get(orderId) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("order was not replicated to " + nodeId, replicas.get(orderId) != null);
+    }
+
+    private String unknownOrderIdOwnedBy(String nodeId) {
+        ConsistentHashRing ring = clusters.get(nodeId).getRing();
+        String orderId;
+        do {
+            orderId = UUID.randomUUID().toString();
+        } while (!ring.ownerOf(orderId).getId().equals(nodeId));
+        return orderId;
+    }
+
+    private String createOn(String nodeId) {
+        return stubs.get(nodeId).createOrder(CreateOrderRequest.newBuilder()
+            .setCustomerId("CUST-001")
+            .addItems(OrderItem.newBuilder()
+                .setProductId("PROD-001")
+                .setProductName("노트북")
+                .setQuantity(1)
+                .setUnitPrice(1500000.0)
+                .build())
+            .setShippingAddress("서울시 강남구 테헤란로 123")
+            .build())
+            .getOrderId();
+    }
+
+    private OrderResponse getOn(String nodeId, String orderId) {
+        return stubs.get(nodeId).getOrder(GetOrderRequest.newBuilder().setOrderId(orderId).build());
+    }
+
+    private List<OrderProcessResponse> processOn(String nodeId, List<String> orderIds) throws InterruptedException {
+        List<OrderProcessResponse> responses = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Throwable[] error = new Throwable[1];
+
+        OrderServiceGrpc.OrderServiceStub asyncStub = OrderServiceGrpc.newStub(channels.get(nodeId))
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(userHeaders()));
+        StreamObserver<OrderProcessRequest> requests = asyncStub.processOrders(
+            new StreamObserver<OrderProcessResponse>() {
+                @Override
+                public void onNext(OrderProcessResponse response) {
+                    synchronized (responses) {
+                        responses.add(response);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    error[0] = t;
+                    done.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    done.countDown();
+                }
+            });
+        for (String orderId : orderIds) {
+            requests.onNext(OrderProcessRequest.newBuilder()
+                .setOrderId(orderId)
+                .setAction(ProcessAction.CONFIRM)
+                .build());
+        }
+        requests.onCompleted();
+
+        assertTrue("processOrders did not finish", done.await(10, TimeUnit.SECONDS));
+        assertFalse("processOrders failed: " + error[0], error[0] != null);
+        return responses;
+    }
+
+    private static Metadata userHeaders() {
+        Metadata headers = new Metadata();
+        headers.put(ClusterContextInterceptor.AUTHORIZATION_HEADER, USER_TOKEN);
+        return headers;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.grpc.server.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final List<ClusterNode> nodes = Arrays.asList(
+        new ClusterNode("node1", "localhost", 9090),
+        new ClusterNode("node2", "localhost", 9091),
+        new ClusterNode("node3", "localhost", 9092));
+
+    @Test
+    public void ownerIsSameOnEveryNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+        List<ClusterNode> reordered = new ArrayList<>(nodes);
+        Collections.reverse(reordered);
+        ConsistentHashRing other = new ConsistentHashRing(reordered, VIRTUAL_NODES);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "order-" + i;
+            assertEquals(ring.ownerOf(key), other.ownerOf(key));
+            assertEquals(ring.followerOf(key), other.followerOf(key));
+        }
+    }
+
+    @Test
+    public void followerIsAnotherNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "order-" + i;
+            ClusterNode follower = ring.followerOf(key);
+            assertNotNull(follower);
+            assertNotEquals(ring.ownerOf(key), follower);
+        }
+    }
+
+    @Test
+    public void singleNodeOwnsEverythingWithoutFollower() {
+        ConsistentHashRing ring = new ConsistentHashRing(nodes.subList(0, 1), VIRTUAL_NODES);
+
+        assertEquals(nodes.get(0), ring.ownerOf("order-1"));
+        assertNull(ring.followerOf("order-1"));
+    }
+
+    @Test
+    public void keysSpreadAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+        Map<ClusterNode, Integer> counts = new HashMap<>();
+        int keys = 30000;
+        for (int i = 0; i < keys; i++) {
+            counts.merge(ring.ownerOf("order-" + i), 1, Integer::sum);
+        }
+
+        for (ClusterNode node : nodes) {
+            double share = counts.getOrDefault(node, 0) / (double) keys;
+            assertTrue(node + " owns " + share, share > 0.2 && share < 0.47);
+        }
+    }
+
+    @Test
+    public void addingNodeOnlyMovesKeysToNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+        List<ClusterNode> grown = new ArrayList<>(nodes);
+        ClusterNode added = new ClusterNode("node4", "localhost", 9093);
+        grown.add(added);
+        ConsistentHashRing after = new ConsistentHashRing(grown, VIRTUAL_NODES);
+
+        for (int i = 0; i < 10000; i++) {
+            String key = "order-" + i;
+            ClusterNode owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                assertEquals(added, owner);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.grpc.server.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.OrderStatus;
+import com.example.grpc.order.ReplicationRecord;
+import org.junit.Test;
+
+public class ReplicaStoreTest {
+
+    private final ReplicaStore store = new ReplicaStore();
+
+    @Test
+    public void keepsHighestVersion() {
+        assertTrue(store.apply("node1", record("order-1", OrderStatus.SHIPPED, 2, false)));
+        assertFalse(store.apply("node1", record("order-1", OrderStatus.PENDING, 1, false)));
+
+        assertEquals(OrderStatus.SHIPPED, store.get("order-1").getStatus());
+    }
+
+    @Test
+    public void ignoresStaleEviction() {
+        store.apply("node1", record("order-1", OrderStatus.REFUNDED, 5, false));
+
+        assertFalse(store.apply("node1", record("order-1", OrderStatus.DELIVERED, 4, true)));
+        assertEquals(OrderStatus.REFUNDED, store.get("order-1").getStatus());
+
+        assertTrue(store.apply("node1", record("order-1", OrderStatus.REFUNDED, 6, true)));
+        assertNull(store.get("order-1"));
+    }
+
+    @Test
+    public void removeFromDropsOnlyThatSource() {
+        store.apply("node1", record("order-1", OrderStatus.PENDING, 1, false));
+        store.apply("node2", record("order-2", OrderStatus.PENDING, 1, false));
+
+        store.removeFrom("node1");
+
+        assertNull(store.get("order-1"));
+        assertEquals(1, store.size());
+    }
+
+    private static ReplicationRecord record(String orderId, OrderStatus status, long version, boolean evicted) {
+        return ReplicationRecord.newBuilder()
+            .setOrder(OrderResponse.newBuilder().setOrderId(orderId).setStatus(status).build())
+            .setVersion(version)
+            .setEvicted(evicted)
+            .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.grpc.server.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.OrderStatus;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.testing.GrpcCleanupRule;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ReplicatorTest {
+
+    @Rule
+    public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+    private final List<ClusterNode> nodes = Arrays.asList(
+        new ClusterNode("node1", "localhost", 1),
+        new ClusterNode("node2", "localhost", 2));
+    private final Map<ClusterNode, ManagedChannel> channels = new HashMap<>();
+    private final String serverPrefix = InProcessServerBuilder.generateName();
+    private ClusterConfig config;
+    private ConsistentHashRing ring;
+    private Replicator replicator;
+
+    @Before
+    public void setUp() {
+        config = new ClusterConfig(nodes, "node1", 16, "replicator-test-token");
+        ring = new ConsistentHashRing(nodes, config.getVirtualNodes());
+        replicator = newReplicator();
+    }
+
+    private Replicator newReplicator() {
+        PeerChannels peers = new PeerChannels(config, node -> {
+            ManagedChannel channel = grpcCleanup.register(
+                InProcessChannelBuilder.forName(serverPrefix + node.getId()).directExecutor().build());
+            channels.put(node, channel);
+            return channel;
+        });
+        return new Replicator(ring, config, peers);
+    }
+
+    @Test
+    public void appliesChangesInOrder() throws Exception {
+        ReplicaStore follower = new ReplicaStore();
+        startFollower(follower);
+        String orderId = ownedOrderId();
+
+        replicator.onOrderStored(order(orderId, OrderStatus.PENDING));
+        replicator.onOrderStored(order(orderId, OrderStatus.DELIVERED));
+        replicator.flush();
+        assertEquals(OrderStatus.DELIVERED, follower.get(orderId).getStatus());
+
+        replicator.onOrderEvicted(order(orderId, OrderStatus.DELIVERED));
+        replicator.flush();
+        assertNull(follower.get(orderId));
+    }
+
+    @Test
+    public void retriesFailedBatchWhenFollowerComesBack() throws Exception {
+        ReplicaStore follower = new ReplicaStore();
+        Server server = startFollower(follower);
+        replicator.flush();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+
+        String orderId = ownedOrderId();
+        replicator.onOrderStored(order(orderId, OrderStatus.PENDING));
+        replicator.flush();
+
+        // 같은 사본 저장소로 다시 연결되므로 재동기화 없이 실패했던 묶음만 다시 보냄
+        startFollower(follower);
+        flushUntil(() -> follower.get(orderId) != null);
+
+        assertTrue(replicator.getRetriedBatches() >= 1);
+        assertEquals(0, replicator.getDroppedRecords());
+    }
+
+    @Test
+    public void resyncsRestartedFollower() throws Exception {
+        String first = ownedOrderId();
+        String second = ownedOrderId();
+        Server server = startFollower(new ReplicaStore());
+        replicator.onOrderStored(order(first, OrderStatus.PENDING));
+        replicator.onOrderStored(order(second, OrderStatus.SHIPPED));
+        replicator.flush();
+
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        ReplicaStore restarted = new ReplicaStore();
+        startFollower(restarted);
+        String third = ownedOrderId();
+        replicator.onOrderStored(order(third, OrderStatus.PENDING));
+        flushUntil(() -> restarted.size() == 3);
+
+        assertEquals(OrderStatus.SHIPPED, restarted.get(second).getStatus());
+        // 첫 연결 때 한 번, 팔로워 재시작 후 한 번
+        assertEquals(2, replicator.getResyncs());
+    }
+
+    @Test
+    public void restartedOwnerClearsGhostReplicas() throws Exception {
+        ReplicaStore follower = new ReplicaStore();
+        startFollower(follower);
+        String kept = ownedOrderId();
+        String ghost = ownedOrderId();
+        replicator.onOrderStored(order(kept, OrderStatus.PENDING));
+        replicator.onOrderStored(order(ghost, OrderStatus.PENDING));
+        replicator.flush();
+        assertEquals(2, follower.size());
+
+        // 재시작한 소유 노드는 메모리에 있던 ghost 주문을 잃었고, 제거 기록도 보내지 않음
+        Replicator restartedOwner = newReplicator();
+        restartedOwner.onOrderStored(order(kept, OrderStatus.SHIPPED));
+        restartedOwner.flush();
+
+        assertEquals(1, follower.size());
+        assertNull(follower.get(ghost));
+        assertEquals(OrderStatus.SHIPPED, follower.get(kept).getStatus());
+        assertEquals(1, restartedOwner.getResyncs());
+    }
+
+    private Server startFollower(ReplicaStore store) throws Exception {
+        return grpcCleanup.register(InProcessServerBuilder.forName(serverPrefix + "node2")
+            .directExecutor()
+            .addService(new ReplicationService(store))
+            .build()
+            .start());
+    }
+
+    private void flushUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            channels.values().forEach(ManagedChannel::resetConnectBackoff);
+            replicator.flush();
+            Thread.sleep(10);
+        }
+        assertTrue("condition not reached", condition.getAsBoolean());
+    }
+
+    private String ownedOrderId() {
+        String orderId;
+        do {
+            orderId = UUID.randomUUID().toString();
+        } while (!ring.ownerOf(orderId).getId().equals("node1"));
+        return orderId;
+    }
+
+    private static OrderResponse order(String orderId, OrderStatus status) {
+        return OrderResponse.newBuilder().setOrderId(orderId).setStatus(status).build();
+    }
+}
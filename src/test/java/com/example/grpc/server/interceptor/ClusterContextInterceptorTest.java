@@ -0,0 +1,139 @@
+package com.example.grpc.server.interceptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.example.grpc.order.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ClusterContextInterceptorTest {
+
+    private static final String INTERNAL_TOKEN = "cluster-secret-0123456789";
+    private static final String USER_TOKEN = "Bearer user-token-0123456789";
+
+    @Rule
+    public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+    private ManagedChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        ClusterContextInterceptor interceptor = new ClusterContextInterceptor(INTERNAL_TOKEN);
+        String serverName = InProcessServerBuilder.generateName();
+        grpcCleanup.register(InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(ServerInterceptors.intercept(new ContextEchoService(), interceptor))
+            .addService(ServerInterceptors.intercept(new ReplicationImpl(), interceptor))
+            .build()
+            .start());
+        channel = grpcCleanup.register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
+    }
+
+    @Test
+    public void clientCallKeepsItsOwnToken() {
+        OrderResponse response = orderStub(headers(USER_TOKEN, false, null)).getOrder(request());
+
+        assertEquals("forwarded=false user=" + USER_TOKEN, response.getMessage());
+    }
+
+    @Test
+    public void rejectsForwardedFlagWithoutInternalToken() {
+        assertDenied(() -> orderStub(headers(USER_TOKEN, true, null)).getOrder(request()));
+    }
+
+    @Test
+    public void rejectsReplicationWithoutInternalToken() {
+        assertDenied(() -> OrderReplicationGrpc.newBlockingStub(channel)
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers(USER_TOKEN, false, null)))
+            .replicate(ReplicationBatch.getDefaultInstance()));
+    }
+
+    @Test
+    public void internalCallCarriesEndUserToken() {
+        Metadata headers = headers(ClusterContextInterceptor.internalAuthorization(INTERNAL_TOKEN), true, USER_TOKEN);
+
+        OrderResponse response = orderStub(headers).getOrder(request());
+
+        assertEquals("forwarded=true user=" + USER_TOKEN, response.getMessage());
+    }
+
+    @Test
+    public void endUserHeaderIsIgnoredOnClientCalls() {
+        OrderResponse response = orderStub(headers(USER_TOKEN, false, "Bearer someone-else-0123456789"))
+            .getOrder(request());
+
+        assertEquals("forwarded=false user=" + USER_TOKEN, response.getMessage());
+    }
+
+    @Test
+    public void internalTokenAllowsReplication() {
+        ReplicationAck ack = OrderReplicationGrpc.newBlockingStub(channel)
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(
+                headers(ClusterContextInterceptor.internalAuthorization(INTERNAL_TOKEN), false, null)))
+            .replicate(ReplicationBatch.getDefaultInstance());
+
+        assertEquals(0, ack.getApplied());
+    }
+
+    private OrderServiceGrpc.OrderServiceBlockingStub orderStub(Metadata headers) {
+        return OrderServiceGrpc.newBlockingStub(channel)
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+
+    private static Metadata headers(String authorization, boolean forwarded, String endUser) {
+        Metadata headers = new Metadata();
+        headers.put(ClusterContextInterceptor.AUTHORIZATION_HEADER, authorization);
+        if (forwarded) {
+            headers.put(ClusterContextInterceptor.FORWARDED_HEADER, "true");
+        }
+        if (endUser != null) {
+            headers.put(ClusterContextInterceptor.END_USER_AUTHORIZATION_HEADER, endUser);
+        }
+        return headers;
+    }
+
+    private static GetOrderRequest request() {
+        return GetOrderRequest.newBuilder().setOrderId("order-1").build();
+    }
+
+    private static void assertDenied(Runnable call) {
+        try {
+            call.run();
+            fail("Expected PERMISSION_DENIED");
+        } catch (StatusRuntimeException e) {
+            assertEquals(Status.Code.PERMISSION_DENIED, e.getStatus().getCode());
+        }
+    }
+
+    private static class ContextEchoService extends OrderServiceGrpc.OrderServiceImplBase {
+        @Override
+        public void getOrder(GetOrderRequest request, StreamObserver<OrderResponse> responseObserver) {
+            responseObserver.onNext(OrderResponse.newBuilder()
+                .setOrderId(request.getOrderId())
+                .setMessage("forwarded=" + ClusterContextInterceptor.FORWARDED_CALL.get()
+                    + " user=" + ClusterContextInterceptor.AUTHORIZATION.get())
+                .build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    private static class ReplicationImpl extends OrderReplicationGrpc.OrderReplicationImplBase {
+        @Override
+        public void replicate(ReplicationBatch request, StreamObserver<ReplicationAck> responseObserver) {
+            responseObserver.onNext(ReplicationAck.newBuilder().setApplied(request.getRecordsCount()).build());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.grpc.server.retention;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.OrderStatus;
+import java.util.List;
+import org.junit.Test;
+
+public class ExpiryWheelTest {
+
+    private static OrderResponse order(String orderId) {
+        return OrderResponse.newBuilder()
+            .setOrderId(orderId)
+            .setStatus(OrderStatus.DELIVERED)
+            .build();
+    }
+
+    @Test
+    public void expiresEntryOnlyAfterAllRoundsHavePassed() {
+        ExpiryWheel wheel = new ExpiryWheel(1000, 4, 0);
+        OrderResponse order = order("order-1");
+        // 10번째 틱: 크기 4인 휠을 두 바퀴 넘게 돈 뒤에 만료
+        wheel.schedule(order, 10_500);
+
+        assertTrue(wheel.advance(3_000).isEmpty());
+        assertTrue(wheel.advance(7_000).isEmpty());
+        assertTrue(wheel.advance(9_999).isEmpty());
+        assertEquals(1, wheel.size());
+
+        List<OrderResponse> expired = wheel.advance(10_000);
+        assertEquals(1, expired.size());
+        assertTrue(expired.get(0) == order);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void entryScheduledInThePastExpiresOnNextTick() {
+        ExpiryWheel wheel = new ExpiryWheel(1000, 4, 0);
+        wheel.advance(5_000);
+
+        wheel.schedule(order("order-1"), 1_000);
+
+        assertTrue(wheel.advance(5_999).isEmpty());
+        assertEquals(1, wheel.advance(6_000).size());
+    }
+
+    @Test
+    public void advancingFarAheadExpiresEveryBucket() {
+        ExpiryWheel wheel = new ExpiryWheel(1000, 4, 0);
+        for (int i = 0; i < 10; i++) {
+            wheel.schedule(order("order-" + i), i * 1_000L);
+        }
+
+        assertEquals(10, wheel.advance(100_000).size());
+        assertEquals(0, wheel.size());
+    }
+}
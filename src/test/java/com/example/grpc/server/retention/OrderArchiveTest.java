@@ -0,0 +1,122 @@
+package com.example.grpc.server.retention;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.OrderStatus;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OrderArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static OrderResponse order(String orderId, OrderStatus status) {
+        return OrderResponse.newBuilder()
+            .setOrderId(orderId)
+            .setStatus(status)
+            .setTotalAmount(10.0)
+            .build();
+    }
+
+    @Test
+    public void sealedSegmentsAreFoundAfterReopen() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        OrderArchive archive = new OrderArchive(directory, 2);
+        archive.append(order("order-1", OrderStatus.DELIVERED));
+        archive.append(order("order-2", OrderStatus.CANCELLED));
+        archive.append(order("order-3", OrderStatus.REFUNDED));
+
+        assertEquals(1, archive.getSegmentCount());
+        assertEquals(OrderStatus.DELIVERED, archive.find("order-1").getStatus());
+        assertEquals(OrderStatus.REFUNDED, archive.find("order-3").getStatus());
+        archive.close();
+
+        OrderArchive reopened = new OrderArchive(directory, 2);
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(OrderStatus.DELIVERED, reopened.find("order-1").getStatus());
+        assertEquals(OrderStatus.CANCELLED, reopened.find("order-2").getStatus());
+        assertEquals(OrderStatus.REFUNDED, reopened.find("order-3").getStatus());
+        assertNull(reopened.find("missing"));
+    }
+
+    @Test
+    public void findReturnsMostRecentlyArchivedCopy() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        OrderArchive archive = new OrderArchive(directory, 2);
+        archive.append(order("order-1", OrderStatus.DELIVERED));
+        archive.append(order("order-2", OrderStatus.DELIVERED));
+        archive.append(order("order-1", OrderStatus.REFUNDED));
+
+        assertEquals(OrderStatus.REFUNDED, archive.find("order-1").getStatus());
+        archive.close();
+
+        assertEquals(OrderStatus.REFUNDED, new OrderArchive(directory, 2).find("order-1").getStatus());
+    }
+
+    private static OrderArchive twoSegments(Path directory) throws IOException {
+        OrderArchive archive = new OrderArchive(directory, 2);
+        archive.append(order("order-1", OrderStatus.DELIVERED));
+        archive.append(order("order-2", OrderStatus.CANCELLED));
+        archive.append(order("order-3", OrderStatus.REFUNDED));
+        return archive;
+    }
+
+    @Test
+    public void reopenLoadsBloomFilterWithoutReadingSegment() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        twoSegments(directory).close();
+        assertTrue(Files.exists(directory.resolve("segment-00000000.bloom")));
+        assertTrue(Files.exists(directory.resolve("segment-00000001.bloom")));
+
+        // 블룸 필터 파일만 읽는다면 세그먼트 내용이 망가져도 시작 시점에는 알 수 없음
+        Files.write(directory.resolve("segment-00000000.gz"), "damaged".getBytes(StandardCharsets.UTF_8));
+
+        OrderArchive reopened = new OrderArchive(directory, 2);
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(OrderStatus.REFUNDED, reopened.find("order-3").getStatus());
+    }
+
+    @Test
+    public void unreadableSegmentIsSkippedOnStartup() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        twoSegments(directory).close();
+        Path damaged = directory.resolve("segment-00000000.gz");
+        byte[] damagedContent = "damaged".getBytes(StandardCharsets.UTF_8);
+        Files.delete(directory.resolve("segment-00000000.bloom"));
+        Files.write(damaged, damagedContent);
+
+        OrderArchive reopened = new OrderArchive(directory, 1);
+        assertEquals(1, reopened.getSegmentCount());
+        assertNull(reopened.find("order-1"));
+        assertEquals(OrderStatus.REFUNDED, reopened.find("order-3").getStatus());
+
+        // 건너뛴 세그먼트 번호는 새 세그먼트가 덮어쓰지 않음
+        reopened.append(order("order-4", OrderStatus.DELIVERED));
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(OrderStatus.DELIVERED, reopened.find("order-4").getStatus());
+        assertArrayEquals(damagedContent, Files.readAllBytes(damaged));
+    }
+
+    @Test
+    public void missingBloomFilterIsRebuilt() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        twoSegments(directory).close();
+        Path bloom = directory.resolve("segment-00000000.bloom");
+        Files.delete(bloom);
+
+        OrderArchive reopened = new OrderArchive(directory, 2);
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(OrderStatus.DELIVERED, reopened.find("order-1").getStatus());
+        assertTrue(Files.exists(bloom));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.grpc.server.retention;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.example.grpc.order.OrderResponse;
+import com.example.grpc.order.OrderStatus;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RetentionManagerTest {
+
+    private static final long TWO_HOURS = Duration.ofHours(2).toMillis();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentHashMap<String, OrderResponse> orders = new ConcurrentHashMap<>();
+    private RetentionManager retention;
+
+    @Before
+    public void setUp() throws IOException {
+        RetentionPolicy policy = new RetentionPolicy(Map.of(
+            OrderStatus.DELIVERED, Duration.ofHours(1),
+            OrderStatus.REFUNDED, Duration.ofHours(1)));
+        retention = new RetentionManager(orders, policy, new OrderArchive(folder.getRoot().toPath(), 10));
+    }
+
+    private OrderResponse store(String orderId, OrderStatus status) {
+        OrderResponse order = OrderResponse.newBuilder()
+            .setOrderId(orderId)
+            .setStatus(status)
+            .build();
+        orders.put(orderId, order);
+        retention.track(order);
+        return order;
+    }
+
+    @Test
+    public void expiredOrderMovesToArchive() {
+        store("order-1", OrderStatus.DELIVERED);
+
+        retention.sweep(System.currentTimeMillis() + TWO_HOURS);
+
+        assertNull(orders.get("order-1"));
+        assertEquals(1, retention.getEvictedOrders());
+        assertEquals(OrderStatus.DELIVERED, retention.findArchived("order-1").getStatus());
+    }
+
+    @Test
+    public void staleSnapshotIsNotEvicted() {
+        store("order-1", OrderStatus.DELIVERED);
+        OrderResponse updated = OrderResponse.newBuilder()
+            .setOrderId("order-1")
+            .setStatus(OrderStatus.PROCESSING)
+            .build();
+        orders.put("order-1", updated);
+
+        retention.sweep(System.currentTimeMillis() + TWO_HOURS);
+
+        assertSame(updated, orders.get("order-1"));
+        assertEquals(0, retention.getEvictedOrders());
+        assertNull(retention.findArchived("order-1"));
+    }
+
+    @Test
+    public void nonTerminalOrderIsNeverScheduled() {
+        store("order-1", OrderStatus.SHIPPED);
+
+        retention.sweep(System.currentTimeMillis() + TWO_HOURS);
+
+        assertEquals(OrderStatus.SHIPPED, orders.get("order-1").getStatus());
+    }
+
+    @Test
+    public void sweepAfterCloseDoesNotEvict() throws IOException {
+        store("order-1", OrderStatus.DELIVERED);
+        retention.close();
+
+        retention.sweep(System.currentTimeMillis() + TWO_HOURS);
+
+        assertEquals(OrderStatus.DELIVERED, orders.get("order-1").getStatus());
+        assertEquals(0, retention.getEvictedOrders());
+    }
+}